@@ -0,0 +1,71 @@
+package com.openclassrooms.mddapi.cache;
+
+import com.openclassrooms.mddapi.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Topics with posts that were left out of the timelines ({@code fannedOut = false}): topics over
+ * {@code feed.fan-out.max-subscribers}, bulk imports, posts written while fan-out was disabled. Feeds only read the
+ * posts table for these topics, most feeds never do. Posts left out by this instance are added as they are written,
+ * the set is reloaded once older than {@code feed.not-fanned-out-topics.ttl} to pick up the ones left out by others.
+ * It may contain extra topics (rolled back writes, deleted posts), which only costs a query.
+ */
+@Component
+public class NotFannedOutTopics {
+    private final PostRepository postRepository;
+    private final long ttlNanos;
+    // Topics left out by this instance, kept across reloads: a reload may not see them yet (uncommitted, replica lag).
+    private final Set<UUID> added = new HashSet<>();
+    private volatile Loaded loaded;
+
+    public NotFannedOutTopics(PostRepository postRepository,
+                              @Value("${feed.not-fanned-out-topics.ttl:1m}") Duration ttl) {
+        this.postRepository = postRepository;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public Set<UUID> get() {
+        Loaded current = loaded;
+        if (current != null && System.nanoTime() - current.expiresAt() < 0) {
+            return current.topicIds();
+        }
+
+        long expiresAt = System.nanoTime() + ttlNanos;
+        List<UUID> topicIds = postRepository.findNotFannedOutTopicIds();
+        synchronized (this) {
+            loaded = new Loaded(union(topicIds, added), expiresAt);
+            return loaded.topicIds();
+        }
+    }
+
+    public void addAll(Collection<UUID> topicIds) {
+        Loaded current = loaded;
+        if (current != null && current.topicIds()
+                                      .containsAll(topicIds)) {
+            return;
+        }
+        synchronized (this) {
+            added.addAll(topicIds);
+            if (loaded != null) {
+                loaded = new Loaded(union(loaded.topicIds(), topicIds), loaded.expiresAt());
+            }
+        }
+    }
+
+    private static Set<UUID> union(Collection<UUID> a, Collection<UUID> b) {
+        Set<UUID> union = new HashSet<>(a);
+        union.addAll(b);
+        return Set.copyOf(union);
+    }
+
+    private record Loaded(Set<UUID> topicIds, long expiresAt) {
+    }
+}
@@ -0,0 +1,145 @@
+package com.openclassrooms.mddapi.cache;
+
+import com.openclassrooms.mddapi.dto.topic.response.TopicResponse;
+import com.openclassrooms.mddapi.mapper.TopicMapper;
+import com.openclassrooms.mddapi.repository.TopicRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Immutable, versioned snapshot of the topic catalogue. Topics change rarely, so {@code /api/topics} is served from
+ * memory and only the caller's subscriptions are read from the database. Any topic write through JPA bumps the version
+ * (see {@link TopicCatalogListener}) and the next read rebuilds the snapshot. Writes the listener cannot see (SQL,
+ * migrations, another instance) are picked up once the snapshot is older than {@code cache.topic-catalog.ttl}.
+ */
+@Component
+public class TopicCatalog implements MeterBinder {
+    private final TopicRepository topicRepository;
+    private final TopicMapper topicMapper;
+    private final long ttlNanos;
+    private final AtomicLong version = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile Loaded loaded;
+
+    public TopicCatalog(TopicRepository topicRepository,
+                        TopicMapper topicMapper,
+                        @Value("${cache.topic-catalog.ttl:1m}") Duration ttl) {
+        this.topicRepository = topicRepository;
+        this.topicMapper = topicMapper;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Meant to be called outside of any transaction, so that {@code findAll} runs in its own one on the primary: a
+     * snapshot read from a lagging replica would be kept for the whole TTL.
+     */
+    public Snapshot snapshot() {
+        long currentVersion = version.get();
+        Loaded current = loaded;
+        if (current != null && current.isValid(currentVersion)) {
+            hits.increment();
+            return current.snapshot();
+        }
+        misses.increment();
+
+        long expiresAt = System.nanoTime() + ttlNanos;
+        Snapshot fresh = new Snapshot(currentVersion, topicMapper.toResponseList(topicRepository.findAll()));
+        // A write that landed while loading bumped the version: serve what was read, but do not keep it.
+        if (version.get() == currentVersion) {
+            loaded = new Loaded(fresh, expiresAt);
+        }
+        return fresh;
+    }
+
+    /**
+     * Invalidates now and again once the surrounding transaction completes, so that a snapshot rebuilt from
+     * uncommitted (or rolled back) rows is never kept.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    /**
+     * Same {@code cache.gets} meter as the Caffeine caches, so hit ratios are queried the same way for every cache.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                       .tags("cache", "topic-catalog", "result", "hit")
+                       .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                       .tags("cache", "topic-catalog", "result", "miss")
+                       .register(registry);
+    }
+
+    private record Loaded(Snapshot snapshot, long expiresAt) {
+        boolean isValid(long currentVersion) {
+            return snapshot.version() == currentVersion && System.nanoTime() - expiresAt < 0;
+        }
+    }
+
+    public static final class Snapshot {
+        private final long version;
+        private final List<TopicResponse> topics;
+        private final Map<UUID, Integer> ordinals;
+
+        public Snapshot(long version, List<TopicResponse> topics) {
+            this.version = version;
+            this.topics = List.copyOf(topics);
+            Map<UUID, Integer> ordinals = HashMap.newHashMap(topics.size());
+            for (int i = 0; i < topics.size(); i++) {
+                ordinals.put(topics.get(i)
+                                   .getId(), i);
+            }
+            this.ordinals = Map.copyOf(ordinals);
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public BitSet toBitSet(Collection<UUID> topicIds) {
+            BitSet bits = new BitSet(topics.size());
+            for (UUID topicId : topicIds) {
+                Integer ordinal = ordinals.get(topicId);
+                if (ordinal != null) {
+                    bits.set(ordinal);
+                }
+            }
+            return bits;
+        }
+
+        public List<TopicResponse> toResponses(BitSet subscribed) {
+            List<TopicResponse> responses = new ArrayList<>(topics.size());
+            for (int i = 0; i < topics.size(); i++) {
+                TopicResponse topic = topics.get(i);
+                responses.add(TopicResponse.builder()
+                                           .id(topic.getId())
+                                           .title(topic.getTitle())
+                                           .description(topic.getDescription())
+                                           .subscribed(subscribed.get(i))
+                                           .build());
+            }
+            return responses;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.openclassrooms.mddapi.cache;
+
+import com.openclassrooms.mddapi.entity.Topic;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// Created while the EntityManagerFactory is being built, so the catalog (which needs a repository) is resolved lazily.
+@Component
+@RequiredArgsConstructor
+public class TopicCatalogListener {
+    private final ObjectProvider<TopicCatalog> topicCatalog;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onTopicWrite(Topic topic) {
+        topicCatalog.getObject()
+                    .invalidate();
+    }
+}
@@ -0,0 +1,31 @@
+package com.openclassrooms.mddapi.config;
+
+import com.openclassrooms.mddapi.monitoring.QueryInspectingDataSource;
+import com.openclassrooms.mddapi.monitoring.QueryInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's {@code dataSource} (the Hikari pool, or the replica routing proxy) so that every statement,
+ * whatever issued it, goes through the {@link QueryInspector}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class QueryInspectionConfig {
+
+    @Bean
+    public static BeanPostProcessor queryInspectingDataSourcePostProcessor(ObjectProvider<QueryInspector> queryInspector) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+                    return new QueryInspectingDataSource(dataSource, queryInspector);
+                }
+                return bean;
+            }
+        };
+    }
+}
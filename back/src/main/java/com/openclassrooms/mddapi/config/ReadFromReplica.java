@@ -0,0 +1,14 @@
+package com.openclassrooms.mddapi.config;
+
+import java.lang.annotation.*;
+
+/**
+ * Lets the read-only transaction of the annotated method run on the read replica. Other read-only transactions,
+ * including Spring Data's default finders, stay on the primary so that a read following a write (login right after
+ * registering, a request right after a rename) always sees it.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadFromReplica {
+}
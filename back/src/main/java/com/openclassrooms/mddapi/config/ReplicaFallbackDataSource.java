@@ -0,0 +1,85 @@
+package com.openclassrooms.mddapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Hands out replica connections when {@code replicaRequested} says so (see {@link ReadFromReplica}), while the replica
+ * is reachable and its replication lag, measured with {@code lagQuery} at most once per {@code checkInterval}, stays
+ * within {@code maxLag}. Otherwise connections come from the primary.
+ */
+@Slf4j
+public class ReplicaFallbackDataSource extends DelegatingDataSource {
+    private final DataSource primary;
+    private final BooleanSupplier replicaRequested;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final long checkIntervalNanos;
+    private final AtomicLong nextCheck;
+    private volatile boolean healthy;
+
+    public ReplicaFallbackDataSource(DataSource replica,
+                                     DataSource primary,
+                                     BooleanSupplier replicaRequested,
+                                     String lagQuery,
+                                     Duration maxLag,
+                                     Duration checkInterval) {
+        super(replica);
+        this.primary = primary;
+        this.replicaRequested = replicaRequested;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.checkIntervalNanos = checkInterval.toNanos();
+        this.nextCheck = new AtomicLong(System.nanoTime());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!replicaRequested.getAsBoolean() || !isHealthy()) {
+            return primary.getConnection();
+        }
+
+        try {
+            return super.getConnection();
+        } catch (SQLException e) {
+            healthy = false;
+            log.warn("Replica unavailable, routing read-only transactions to the primary", e);
+            return primary.getConnection();
+        }
+    }
+
+    boolean isHealthy() {
+        long now = System.nanoTime();
+        long due = nextCheck.get();
+        // Only the thread that wins the race pays for the check, the others keep the last known state.
+        if (now - due >= 0 && nextCheck.compareAndSet(due, now + checkIntervalNanos)) {
+            healthy = checkLag();
+        }
+        return healthy;
+    }
+
+    private boolean checkLag() {
+        try (Connection connection = super.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+            if (lagSeconds * 1000 > maxLag.toMillis()) {
+                log.warn("Replica is {}s behind, routing read-only transactions to the primary", lagSeconds);
+                return false;
+            }
+            return true;
+        } catch (SQLException e) {
+            log.warn("Replica lag check failed, routing read-only transactions to the primary", e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.openclassrooms.mddapi.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks the current thread while a {@link ReadFromReplica} method runs. Connections are only picked when the first
+ * statement executes, so the mark is seen whatever the order of this aspect and the transaction interceptor.
+ */
+@Aspect
+@Component
+public class ReplicaRouting {
+    private static final ThreadLocal<Boolean> REQUESTED = ThreadLocal.withInitial(() -> false);
+
+    public static boolean isRequested() {
+        return REQUESTED.get();
+    }
+
+    @Around("@annotation(com.openclassrooms.mddapi.config.ReadFromReplica)")
+    public Object readFromReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean previous = REQUESTED.get();
+        REQUESTED.set(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            REQUESTED.set(previous);
+        }
+    }
+}
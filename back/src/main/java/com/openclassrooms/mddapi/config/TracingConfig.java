@@ -0,0 +1,24 @@
+package com.openclassrooms.mddapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.mddapi.monitoring.JsonLinesSpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Span exporters besides OTLP, which Spring Boot configures on its own once {@code management.otlp.tracing.endpoint}
+ * is set. Every {@code SpanExporter} bean is added to the tracer's batch processor.
+ */
+@Configuration(proxyBeanMethods = false)
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty("tracing.file.path")
+    public JsonLinesSpanExporter jsonLinesSpanExporter(@Value("${tracing.file.path}") Path path, ObjectMapper objectMapper) {
+        return new JsonLinesSpanExporter(path, objectMapper);
+    }
+}
@@ -1,19 +1,34 @@
 package com.openclassrooms.mddapi.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.openclassrooms.mddapi.dto.comment.request.CommentBatchRequest;
 import com.openclassrooms.mddapi.dto.comment.request.CommentRequest;
 import com.openclassrooms.mddapi.dto.comment.response.CommentResponse;
+import com.openclassrooms.mddapi.dto.page.response.CursorPageResponse;
+import com.openclassrooms.mddapi.dto.post.request.PostBatchRequest;
 import com.openclassrooms.mddapi.dto.post.request.PostRequest;
 import com.openclassrooms.mddapi.dto.post.response.PostResponse;
+import com.openclassrooms.mddapi.dto.post.response.PostSummaryResponse;
 import com.openclassrooms.mddapi.service.CommentService;
 import com.openclassrooms.mddapi.service.PostService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.security.Principal;
 import java.util.List;
 import java.util.UUID;
@@ -25,14 +40,52 @@ import java.util.UUID;
 public class PostController {
     private final PostService postService;
     private final CommentService commentService;
+    private final ObjectMapper objectMapper;
 
     @Operation(summary = "List all posts")
     @GetMapping("")
-    public ResponseEntity<List<PostResponse>> list() {
+    public ResponseEntity<List<PostSummaryResponse>> list(WebRequest request) {
+        String eTag = postService.getAllPostsETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+
         return ResponseEntity.status(HttpStatus.OK)
+                             .eTag(eTag)
                              .body(postService.getAllPosts());
     }
 
+    @Operation(summary = "Stream all posts as newline-delimited JSON")
+    @GetMapping(value = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> stream(WebRequest request) {
+        String eTag = postService.getAllPostsETag();
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+
+        ObjectWriter writer = objectMapper.writer()
+                                          .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory()
+                                                       .createGenerator(outputStream)
+                                                       .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                postService.streamAllPosts(post -> {
+                    try {
+                        writer.writeValue(generator, post);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.status(HttpStatus.OK)
+                             .eTag(eTag)
+                             .contentType(MediaType.APPLICATION_NDJSON)
+                             .body(body);
+    }
+
     @Operation(summary = "Create a new post")
     @PostMapping("")
     public ResponseEntity<PostResponse> create(
@@ -43,13 +96,40 @@ public class PostController {
                              .body(postService.createPost(postRequest, principal.getName()));
     }
 
+    @Operation(summary = "Create up to 500 posts in a single transaction")
+    @PostMapping("/batch")
+    public ResponseEntity<List<PostResponse>> createBatch(
+            @Valid @RequestBody PostBatchRequest postBatchRequest,
+            Principal principal
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                             .body(postService.createPosts(postBatchRequest.getPosts(), principal.getName()));
+    }
+
     @Operation(summary = "Retrieve a post by ID")
     @GetMapping("/{postId}")
-    public ResponseEntity<PostResponse> retrieve(@PathVariable UUID postId) {
+    public ResponseEntity<PostResponse> retrieve(@PathVariable UUID postId, WebRequest request) {
+        String eTag = postService.getPostETag(postId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+
         return ResponseEntity.status(HttpStatus.OK)
+                             .eTag(eTag)
                              .body(postService.getPostById(postId));
     }
 
+    @Operation(summary = "List the comments of a post, newest first")
+    @GetMapping("/{postId}/comments")
+    public ResponseEntity<CursorPageResponse<CommentResponse>> listComments(
+            @PathVariable UUID postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.status(HttpStatus.OK)
+                             .body(commentService.getComments(postId, cursor, limit));
+    }
+
     @Operation(summary = "Add a comment to an existing post")
     @PostMapping("/{postId}/comments")
     public ResponseEntity<CommentResponse> addComment(
@@ -61,10 +141,48 @@ public class PostController {
                              .body(commentService.createComment(postId, commentRequest, principal.getName()));
     }
 
-    @Operation(summary = "Get feed of posts from subscribed topics")
+    @Operation(summary = "Add up to 500 comments to an existing post in a single transaction")
+    @PostMapping("/{postId}/comments/batch")
+    public ResponseEntity<List<CommentResponse>> addCommentBatch(
+            @PathVariable UUID postId,
+            @Valid @RequestBody CommentBatchRequest commentBatchRequest,
+            Principal principal
+    ) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                             .body(commentService.createComments(postId, commentBatchRequest.getComments(),
+                                                                 principal.getName()));
+    }
+
+    @Operation(summary = "Search posts by title and content, best matches first")
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageResponse<PostSummaryResponse>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return ResponseEntity.status(HttpStatus.OK)
+                             .body(postService.search(q, cursor, limit));
+    }
+
+    @Operation(summary = "Get feed of posts from subscribed topics, newest first unless order is asc")
     @GetMapping("/feed")
-    public ResponseEntity<List<PostResponse>> getFeed(Principal principal) {
+    public ResponseEntity<CursorPageResponse<PostSummaryResponse>> getFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "desc") String order,
+            Principal principal,
+            WebRequest request
+    ) {
+        Sort.Direction direction = Sort.Direction.fromOptionalString(order)
+                                                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                                                                                                "Invalid order"));
+        String eTag = postService.getFeedETag(principal.getName(), cursor, limit, direction);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+
         return ResponseEntity.status(HttpStatus.OK)
-                             .body(postService.getFeed(principal.getName()));
+                             .eTag(eTag)
+                             .body(postService.getFeed(principal.getName(), cursor, limit, direction));
     }
 }
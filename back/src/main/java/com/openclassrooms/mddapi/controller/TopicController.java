@@ -2,6 +2,7 @@ package com.openclassrooms.mddapi.controller;
 
 import com.openclassrooms.mddapi.dto.topic.response.TopicResponse;
 import com.openclassrooms.mddapi.service.TopicService;
+import com.openclassrooms.mddapi.web.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -23,8 +24,10 @@ public class TopicController {
     @Operation(summary = "List all topics")
     @GetMapping
     public ResponseEntity<List<TopicResponse>> list(Principal principal) {
+        List<TopicResponse> topics = topicService.getAllTopics(principal.getName());
         return ResponseEntity.status(HttpStatus.OK)
-                             .body(topicService.getAllTopics(principal.getName()));
+                             .eTag(ETags.of(topics))
+                             .body(topics);
     }
 
     @Operation(summary = "Subscribe to a topic")
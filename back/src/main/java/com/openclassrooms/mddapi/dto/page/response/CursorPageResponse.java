@@ -0,0 +1,23 @@
+package com.openclassrooms.mddapi.dto.page.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+    private List<T> items;
+
+    @Schema(
+            description = "Opaque cursor to pass back to fetch the next page, null when there is no more items",
+            nullable = true
+    )
+    private String nextCursor;
+}
@@ -0,0 +1,25 @@
+package com.openclassrooms.mddapi.dto.post.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PostBatchRequest {
+    public static final int MAX_SIZE = 500;
+
+    @Schema(description = "Posts to create, in order, in a single transaction")
+    @NotEmpty
+    @Size(max = MAX_SIZE)
+    private List<@Valid PostRequest> posts;
+}
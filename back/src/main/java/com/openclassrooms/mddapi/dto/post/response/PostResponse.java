@@ -1,6 +1,7 @@
 package com.openclassrooms.mddapi.dto.post.response;
 
 import com.openclassrooms.mddapi.dto.comment.response.CommentResponse;
+import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,5 +22,13 @@ public class PostResponse {
     private String author;
     private String topic;
     private LocalDateTime createdAt;
+
+    @Schema(description = "First page of comments, newest first")
     private List<CommentResponse> comments;
+
+    @Schema(
+            description = "Cursor to fetch the next page from /api/posts/{postId}/comments, null when every comment is already returned",
+            nullable = true
+    )
+    private String commentsNextCursor;
 }
@@ -0,0 +1,27 @@
+package com.openclassrooms.mddapi.dto.post.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PostSummaryResponse {
+    private UUID id;
+    private String title;
+
+    @Schema(description = "Beginning of the post content, truncated for list views")
+    private String content;
+
+    private String author;
+    private String topic;
+    private LocalDateTime createdAt;
+    private long commentCount;
+}
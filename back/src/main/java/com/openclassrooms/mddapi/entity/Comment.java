@@ -8,7 +8,10 @@ import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
 @Entity
-@Table(name = "comments")
+@Table(
+        name = "comments",
+        indexes = @Index(name = "idx_comments_post_created_at_id", columnList = "post_id, created_at DESC, id DESC")
+)
 @Getter
 @Setter
 @NoArgsConstructor
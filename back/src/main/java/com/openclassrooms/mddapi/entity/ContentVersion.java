@@ -0,0 +1,22 @@
+package com.openclassrooms.mddapi.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * The single row of {@code content_version}, only read and raised through {@code ContentVersionRepository}. Not a
+ * {@link BaseEntity}: it is never inserted by the application and has no timestamps.
+ */
+@Entity
+@Table(name = "content_version")
+@Getter
+@NoArgsConstructor
+public class ContentVersion {
+    @Id
+    private Integer id;
+
+    private long version;
+}
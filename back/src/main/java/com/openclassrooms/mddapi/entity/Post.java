@@ -11,7 +11,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "posts")
+@Table(
+        name = "posts",
+        indexes = @Index(name = "idx_posts_topic_created_at_id", columnList = "topic_id, created_at DESC, id DESC")
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -32,6 +35,9 @@ public class Post extends BaseEntity {
     @JoinColumn(name = "topic_id", nullable = false)
     private Topic topic;
 
+    @Column(nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
+    private boolean fannedOut;
+
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("createdAt DESC")
     private List<Comment> comments = new ArrayList<>();
@@ -0,0 +1,43 @@
+package com.openclassrooms.mddapi.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(
+        name = "timeline_entries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_timeline_entries_user_post", columnNames = {"user_id", "post_id"}),
+        indexes = @Index(name = "idx_timeline_entries_user_post_created_at", columnList = "user_id, post_created_at DESC, post_id DESC")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+public class TimelineEntry extends BaseEntity {
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "post_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Post post;
+
+    // The post_id column itself, for the timeline keyset: p.id would read the joined posts row, not the index.
+    @Column(name = "post_id", insertable = false, updatable = false)
+    private UUID postId;
+
+    @Column(nullable = false)
+    private LocalDateTime postCreatedAt;
+}
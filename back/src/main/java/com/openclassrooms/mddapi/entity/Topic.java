@@ -1,7 +1,9 @@
 package com.openclassrooms.mddapi.entity;
 
+import com.openclassrooms.mddapi.cache.TopicCatalogListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -11,6 +13,7 @@ import lombok.experimental.SuperBuilder;
 
 @Entity
 @Table(name = "topics")
+@EntityListeners(TopicCatalogListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -8,26 +8,37 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.experimental.SuperBuilder;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.UNIQUE_USERNAME, columnNames = "username"),
+        @UniqueConstraint(name = User.UNIQUE_EMAIL, columnNames = "email")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @SuperBuilder
 @AllArgsConstructor
 public class User extends BaseEntity {
-    @Column(unique = true, nullable = false)
+    public static final String UNIQUE_USERNAME = "uk_users_username";
+    public static final String UNIQUE_EMAIL = "uk_users_email";
+
+    @Column(nullable = false)
     private String username;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
     private String password;
 
+    // Only raised by UserRepository.raiseTimelineTrimmedAt, never written back from a loaded user.
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime timelineTrimmedAt;
+
     @ManyToMany
     @JoinTable(
             name = "subscriptions",
@@ -35,5 +46,5 @@ public class User extends BaseEntity {
             inverseJoinColumns = @JoinColumn(name = "topic_id")
     )
     @Default
-    private List<Topic> subscriptions = new ArrayList<>();
+    private Set<Topic> subscriptions = new HashSet<>();
 }
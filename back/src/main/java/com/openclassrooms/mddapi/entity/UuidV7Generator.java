@@ -0,0 +1,33 @@
+package com.openclassrooms.mddapi.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDs (RFC 9562 version 7): 48 bits of Unix milliseconds, then a 12-bit counter in {@code rand_a} so
+ * that ids generated by this JVM are strictly increasing even within the same millisecond, then 62 random bits.
+ * New rows therefore land on the right-most pages of primary and foreign key indexes instead of random ones.
+ */
+public class UuidV7Generator implements UuidValueGenerator {
+    private static final AtomicLong LAST_TIMESTAMP_AND_COUNTER = new AtomicLong();
+
+    public static UUID generate() {
+        long now = System.currentTimeMillis() << 12;
+        // Counter overflow borrows into the millisecond bits, the clock briefly runs ahead rather than going back.
+        long timestampAndCounter = LAST_TIMESTAMP_AND_COUNTER.updateAndGet(last -> Math.max(last + 1, now));
+
+        long mostSigBits = (timestampAndCounter >>> 12) << 16 | 0x7000L | (timestampAndCounter & 0xFFFL);
+        long leastSigBits = ThreadLocalRandom.current()
+                                             .nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    @Override
+    public UUID generateUuid(SharedSessionContractImplementor session) {
+        return generate();
+    }
+}
@@ -0,0 +1,6 @@
+package com.openclassrooms.mddapi.event;
+
+import java.util.UUID;
+
+public record PostFannedOutEvent(UUID topicId) {
+}
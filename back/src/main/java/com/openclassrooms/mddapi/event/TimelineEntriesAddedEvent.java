@@ -0,0 +1,7 @@
+package com.openclassrooms.mddapi.event;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public record TimelineEntriesAddedEvent(Collection<UUID> userIds) {
+}
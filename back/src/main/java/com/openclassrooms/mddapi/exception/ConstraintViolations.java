@@ -0,0 +1,21 @@
+package com.openclassrooms.mddapi.exception;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+public final class ConstraintViolations {
+    private ConstraintViolations() {
+    }
+
+    /**
+     * Whether the violation was raised by the named constraint. Drivers report the name in the error message (H2
+     * upper-cases it and appends an index suffix), so the message is matched case-insensitively.
+     */
+    public static boolean isViolated(DataIntegrityViolationException ex, String constraintName) {
+        String message = ex.getMostSpecificCause()
+                           .getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT)
+                                         .contains(constraintName.toLowerCase(Locale.ROOT));
+    }
+}
@@ -19,6 +19,6 @@ public class GlobalExceptionHandler {
                 ex.getReason(),
                 request.getRequestURI()
         );
-        return new ResponseEntity<>(error, ex.getStatusCode());
+        return new ResponseEntity<>(error, ex.getHeaders(), ex.getStatusCode());
     }
 }
@@ -7,6 +7,8 @@ import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
+import java.util.List;
+
 @Mapper(componentModel = "spring")
 public interface CommentMapper {
     @BeanMapping(ignoreByDefault = true)
@@ -16,6 +18,8 @@ public interface CommentMapper {
     @Mapping(target = "createdAt", source = "createdAt")
     CommentResponse toResponse(Comment comment);
 
+    List<CommentResponse> toResponseList(List<Comment> comments);
+
     Comment toEntity(CommentRequest request);
 }
 
@@ -2,14 +2,17 @@ package com.openclassrooms.mddapi.mapper;
 
 import com.openclassrooms.mddapi.dto.post.request.PostRequest;
 import com.openclassrooms.mddapi.dto.post.response.PostResponse;
+import com.openclassrooms.mddapi.dto.post.response.PostSummaryResponse;
 import com.openclassrooms.mddapi.entity.Post;
+import com.openclassrooms.mddapi.repository.projection.PostSearchHit;
+import com.openclassrooms.mddapi.repository.projection.PostSummary;
 import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
 import java.util.List;
 
-@Mapper(componentModel = "spring", uses = CommentMapper.class)
+@Mapper(componentModel = "spring")
 public interface PostMapper {
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
@@ -18,10 +21,23 @@ public interface PostMapper {
     @Mapping(target = "author", source = "author.username")
     @Mapping(target = "topic", source = "topic.title")
     @Mapping(target = "createdAt", source = "createdAt")
-    @Mapping(target = "comments", source = "comments")
     PostResponse toResponse(Post post);
 
     List<PostResponse> toResponseList(List<Post> posts);
 
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "id", source = "id")
+    @Mapping(target = "title", source = "title")
+    @Mapping(target = "content", source = "content")
+    @Mapping(target = "author", source = "author")
+    @Mapping(target = "topic", source = "topic")
+    @Mapping(target = "createdAt", source = "createdAt")
+    @Mapping(target = "commentCount", source = "commentCount")
+    PostSummaryResponse toSummaryResponse(PostSummary summary);
+
+    List<PostSummaryResponse> toSummaryResponseList(List<PostSummary> summaries);
+
+    List<PostSummaryResponse> toSearchResponseList(List<PostSearchHit> hits);
+
     Post toEntity(PostRequest postRequest);
 }
@@ -0,0 +1,75 @@
+package com.openclassrooms.mddapi.monitoring;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Hands every {@code execute*} call made through the connections of the wrapped {@link DataSource}, with the
+ * statement's SQL, to the {@link QueryInspector} which times and traces it. The inspector is looked up lazily because the data
+ * source is needed (by Flyway and the entity manager factory) before the meter registry exists.
+ */
+public class QueryInspectingDataSource extends DelegatingDataSource {
+    private final ObjectProvider<QueryInspector> queryInspector;
+
+    public QueryInspectingDataSource(DataSource targetDataSource, ObjectProvider<QueryInspector> queryInspector) {
+        super(targetDataSource);
+        this.queryInspector = queryInspector;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return inspect(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return inspect(super.getConnection(username, password));
+    }
+
+    private Connection inspect(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "prepareStatement", "prepareCall" ->
+                            inspect((Statement) invoke(connection, method, args), method.getReturnType(), (String) args[0]);
+                    case "createStatement" -> inspect((Statement) invoke(connection, method, args), Statement.class, null);
+                    default -> invoke(connection, method, args);
+                });
+    }
+
+    private Object inspect(Statement statement, Class<?> type, String preparedSql) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (!method.getName()
+                       .startsWith("execute")) {
+                return invoke(statement, method, args);
+            }
+
+            QueryInspector inspector = queryInspector.getIfAvailable();
+            if (inspector == null) {
+                return invoke(statement, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            boolean batch = method.getName()
+                                  .endsWith("Batch");
+            return inspector.inspect(sql, batch, () -> invoke(statement, method, args));
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.openclassrooms.mddapi.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects every JDBC statement seen by {@link QueryInspectingDataSource}: statements slower than
+ * {@code datasource.inspection.slow-query-threshold} are logged, and within a request (see
+ * {@link QueryInspectionFilter}) the same statement running {@code datasource.inspection.repeated-query-threshold}
+ * times or more is reported as a probable N+1, such as lazy associations loaded one by one while mapping a list.
+ * JDBC batches are left out of that check: a bulk import runs the same INSERT once per {@code hibernate.jdbc.batch_size}
+ * rows by design.
+ * Statements run while a span is active also get a {@code db.statement} child span.
+ */
+@Slf4j
+@Component
+public class QueryInspector {
+    private static final ThreadLocal<RequestQueries> CURRENT = new ThreadLocal<>();
+
+    private final Tracer tracer;
+    private final long slowQueryThresholdNanos;
+    private final int repeatedQueryThreshold;
+    private final Timer statementTimer;
+    private final Counter slowCounter;
+    private final Counter repeatedCounter;
+    private final DistributionSummary requestStatements;
+    private final Timer requestStatementTime;
+
+    public QueryInspector(MeterRegistry meterRegistry,
+                          Tracer tracer,
+                          @Value("${datasource.inspection.slow-query-threshold:200ms}") Duration slowQueryThreshold,
+                          @Value("${datasource.inspection.repeated-query-threshold:5}") int repeatedQueryThreshold) {
+        this.tracer = tracer;
+        this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+        this.repeatedQueryThreshold = repeatedQueryThreshold;
+        this.statementTimer = Timer.builder("db.statements")
+                                   .register(meterRegistry);
+        this.slowCounter = Counter.builder("db.statements.slow")
+                                  .register(meterRegistry);
+        this.repeatedCounter = Counter.builder("db.statements.repeated")
+                                      .register(meterRegistry);
+        this.requestStatements = DistributionSummary.builder("db.request.statements")
+                                                    .register(meterRegistry);
+        this.requestStatementTime = Timer.builder("db.request.statement.time")
+                                         .register(meterRegistry);
+    }
+
+    public void begin(String request) {
+        CURRENT.set(new RequestQueries(request));
+    }
+
+    public void end() {
+        RequestQueries queries = CURRENT.get();
+        if (queries == null) {
+            return;
+        }
+        CURRENT.remove();
+
+        requestStatements.record(queries.count);
+        requestStatementTime.record(queries.nanos, TimeUnit.NANOSECONDS);
+        queries.executions.forEach((sql, executions) -> {
+            if (executions >= repeatedQueryThreshold) {
+                repeatedCounter.increment();
+                log.warn("{} ran the same statement {} times, possible N+1: {}", queries.request, executions, sql);
+            }
+        });
+        log.debug("{} ran {} statements in {} ms", queries.request, queries.count,
+                  TimeUnit.NANOSECONDS.toMillis(queries.nanos));
+    }
+
+    Object inspect(String sql, boolean batch, Execution execution) throws Throwable {
+        Span span = tracer.currentSpan() == null ? null : tracer.nextSpan()
+                                                              .name("db.statement")
+                                                              .tag("db.statement", String.valueOf(sql))
+                                                              .start();
+        long start = System.nanoTime();
+        try (Tracer.SpanInScope ignored = span == null ? null : tracer.withSpan(span)) {
+            return execution.execute();
+        } catch (Throwable e) {
+            if (span != null) {
+                span.error(e);
+            }
+            throw e;
+        } finally {
+            record(sql, batch, System.nanoTime() - start);
+            if (span != null) {
+                span.end();
+            }
+        }
+    }
+
+    void record(String sql, boolean batch, long nanos) {
+        statementTimer.record(nanos, TimeUnit.NANOSECONDS);
+        if (nanos >= slowQueryThresholdNanos) {
+            slowCounter.increment();
+            log.warn("Slow statement took {} ms: {}", TimeUnit.NANOSECONDS.toMillis(nanos), sql);
+        }
+
+        RequestQueries queries = CURRENT.get();
+        if (queries != null) {
+            queries.count++;
+            queries.nanos += nanos;
+            if (sql != null && !batch) {
+                queries.executions.merge(sql, 1, Integer::sum);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Execution {
+        Object execute() throws Throwable;
+    }
+
+    private static final class RequestQueries {
+        private final String request;
+        private final Map<String, Integer> executions = new HashMap<>();
+        private int count;
+        private long nanos;
+
+        private RequestQueries(String request) {
+            this.request = request;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.openclassrooms.mddapi.pagination;
+
+import com.openclassrooms.mddapi.dto.page.response.CursorPageResponse;
+
+import java.util.List;
+import java.util.function.Function;
+
+public final class CursorPages {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private CursorPages() {
+    }
+
+    public static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.clamp(limit, 1, MAX_LIMIT);
+    }
+
+    /**
+     * Builds a page from rows fetched with {@code pageSize + 1} as limit: the extra row only tells
+     * whether a next page exists and is never returned.
+     */
+    public static <E extends Keyset, R> CursorPageResponse<R> of(List<E> rows,
+                                                                 int pageSize,
+                                                                 Function<List<E>, List<R>> mapper) {
+        return of(rows, pageSize, mapper, row -> Cursor.of(row)
+                                                      .encode());
+    }
+
+    /**
+     * Same as {@link #of(List, int, Function)} for rows ordered on another keyset, {@code cursor} encodes the last row.
+     */
+    public static <E, R> CursorPageResponse<R> of(List<E> rows,
+                                                  int pageSize,
+                                                  Function<List<E>, List<R>> mapper,
+                                                  Function<E, String> cursor) {
+        boolean hasNext = rows.size() > pageSize;
+        List<E> page = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? cursor.apply(page.getLast()) : null;
+        return new CursorPageResponse<>(mapper.apply(page), nextCursor);
+    }
+}
@@ -0,0 +1,23 @@
+package com.openclassrooms.mddapi.pagination;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.UUID;
+
+public interface Keyset {
+    /**
+     * Same order as {@code order by createdAt desc, id desc} in the database, which compares UUIDs as unsigned bytes.
+     */
+    Comparator<Keyset> NEWEST_FIRST = Comparator.comparing(Keyset::getCreatedAt)
+                                                .thenComparing(Keyset::getId, Keyset::compareUnsigned)
+                                                .reversed();
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int result = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return result != 0 ? result : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    UUID getId();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,41 @@
+package com.openclassrooms.mddapi.pagination;
+
+import com.openclassrooms.mddapi.repository.projection.PostSearchHit;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position on {@code (rank, id)} for ranked search results, exchanged with clients as an opaque base64 string.
+ * The rank is kept as a {@code float} so that it compares exactly with the {@code real} computed by the database.
+ */
+public record SearchCursor(float rank, UUID id) {
+    private static final String SEPARATOR = "|";
+
+    public static SearchCursor of(PostSearchHit hit) {
+        return new SearchCursor(hit.getRank(), hit.getId());
+    }
+
+    public static SearchCursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder()
+                                          .decode(value), StandardCharsets.UTF_8);
+            int separatorIndex = raw.indexOf(SEPARATOR);
+            return new SearchCursor(
+                    Float.parseFloat(raw.substring(0, separatorIndex)),
+                    UUID.fromString(raw.substring(separatorIndex + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString((rank + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
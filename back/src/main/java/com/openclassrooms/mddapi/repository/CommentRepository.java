@@ -1,11 +1,36 @@
 package com.openclassrooms.mddapi.repository;
 
 import com.openclassrooms.mddapi.entity.Comment;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, UUID> {
+    @EntityGraph(attributePaths = "author")
+    @Query("""
+           select c from Comment c
+           where c.post.id = :postId
+           order by c.createdAt desc, c.id desc
+           """)
+    List<Comment> findByPostId(@Param("postId") UUID postId, Limit limit);
+
+    @EntityGraph(attributePaths = "author")
+    @Query("""
+           select c from Comment c
+           where c.post.id = :postId
+             and (c.createdAt, c.id) < (:createdAt, :id)
+           order by c.createdAt desc, c.id desc
+           """)
+    List<Comment> findByPostIdAfter(@Param("postId") UUID postId,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") UUID id,
+                                    Limit limit);
 }
@@ -0,0 +1,22 @@
+package com.openclassrooms.mddapi.repository;
+
+import com.openclassrooms.mddapi.entity.ContentVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Version of everything the post listing and the feeds render: posts, comment counts, author and topic names. Services
+ * raise it as the last statement of the transactions that change them, the row lock is then held only until commit,
+ * and a reader sees the new version together with the new rows.
+ */
+@Repository
+public interface ContentVersionRepository extends JpaRepository<ContentVersion, Integer> {
+    @Query("select v.version from ContentVersion v")
+    long findVersion();
+
+    @Modifying
+    @Query("update ContentVersion v set v.version = v.version + 1")
+    void increment();
+}
@@ -1,23 +1,183 @@
 package com.openclassrooms.mddapi.repository;
 
 import com.openclassrooms.mddapi.entity.Post;
-import com.openclassrooms.mddapi.entity.Topic;
+import com.openclassrooms.mddapi.repository.projection.PostSearchHit;
+import com.openclassrooms.mddapi.repository.projection.PostSummary;
+import com.openclassrooms.mddapi.repository.projection.PostVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.lang.NonNull;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, UUID> {
-    @EntityGraph(attributePaths = {"author", "topic", "comments", "comments.author"})
-    @Override
-    @NonNull
-    List<Post> findAll();
+    String SUMMARY_FIELDS = """
+                            select p.id as id,
+                                   p.title as title,
+                                   substring(p.content, 1, 300) as content,
+                                   p.author.username as author,
+                                   p.topic.title as topic,
+                                   p.createdAt as createdAt,
+                                   (select count(c) from Comment c where c.post = p) as commentCount
+                            """;
 
-    @EntityGraph(attributePaths = {"author", "topic", "comments", "comments.author"})
-    List<Post> findAllByTopicInOrderByCreatedAtDesc(Collection<Topic> topics);
+    String SELECT_SUMMARY = SUMMARY_FIELDS + """
+                                             from Post p
+                                             """;
+
+    String WHERE_SUBSCRIBED = """
+                              where p.topic.id in (select s.id from User u join u.subscriptions s where u.username = :username)
+                              """;
+
+    String WHERE_IN_TOPICS = """
+                             where p.topic.id in :topicIds
+                             """;
+
+    String AFTER_KEYSET = """
+                          and (p.createdAt, p.id) < (:createdAt, :id)
+                          """;
+
+    String AFTER_KEYSET_ASC = """
+                              and (p.createdAt, p.id) > (:createdAt, :id)
+                              """;
+
+    String NOT_FANNED_OUT = """
+                            and p.fannedOut = false
+                            """;
+
+    String ORDER_BY_KEYSET = """
+                             order by p.createdAt desc, p.id desc
+                             """;
+
+    String ORDER_BY_KEYSET_ASC = """
+                                 order by p.createdAt asc, p.id asc
+                                 """;
+
+    // PostgreSQL only: search_vector and its GIN index are created by db/vendor/postgresql. Ranks are computed for
+    // matching posts only, the outer query applies the (rank, id) keyset on top of them.
+    String SEARCH_HITS = """
+                         select * from (
+                             select p.id as "id",
+                                    p.title as "title",
+                                    substring(p.content, 1, 300) as "content",
+                                    u.username as "author",
+                                    t.title as "topic",
+                                    p.created_at as "createdAt",
+                                    (select count(*) from comments c where c.post_id = p.id) as "commentCount",
+                                    ts_rank(p.search_vector, query) as "rank"
+                             from posts p
+                             join users u on u.id = p.author_id
+                             join topics t on t.id = p.topic_id
+                             cross join websearch_to_tsquery('simple', :q) query
+                             where p.search_vector @@ query
+                         ) hits
+                         """;
+
+    String AFTER_SEARCH_KEYSET = """
+                                 where hits."rank" < cast(:rank as real)
+                                    or (hits."rank" = cast(:rank as real) and hits."id" < :id)
+                                 """;
+
+    String ORDER_BY_SEARCH_KEYSET = """
+                                    order by hits."rank" desc, hits."id" desc
+                                    limit :limit
+                                    """;
+
+    @EntityGraph(attributePaths = {"author", "topic"})
+    Optional<Post> findWithAuthorAndTopicById(UUID id);
+
+    @Query(SELECT_SUMMARY + ORDER_BY_KEYSET)
+    List<PostSummary> findAllSummaries();
+
+    // Without a fetch size the Postgres driver buffers the whole result set before the first row is returned.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"))
+    @Query(SELECT_SUMMARY + ORDER_BY_KEYSET)
+    Stream<PostSummary> streamAllSummaries();
+
+    @Query(SELECT_SUMMARY + WHERE_SUBSCRIBED + ORDER_BY_KEYSET)
+    List<PostSummary> findFeed(@Param("username") String username, Limit limit);
+
+    @Query(SELECT_SUMMARY + WHERE_SUBSCRIBED + AFTER_KEYSET + ORDER_BY_KEYSET)
+    List<PostSummary> findFeedAfter(@Param("username") String username,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") UUID id,
+                                    Limit limit);
+
+    // Oldest first: always read from the posts table, timelines only hold the newest posts of each user.
+    @Query(SELECT_SUMMARY + WHERE_SUBSCRIBED + ORDER_BY_KEYSET_ASC)
+    List<PostSummary> findFeedOldestFirst(@Param("username") String username, Limit limit);
+
+    @Query(SELECT_SUMMARY + WHERE_SUBSCRIBED + AFTER_KEYSET_ASC + ORDER_BY_KEYSET_ASC)
+    List<PostSummary> findFeedOldestFirstAfter(@Param("username") String username,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") UUID id,
+                                               Limit limit);
+
+    @Query(SELECT_SUMMARY + WHERE_SUBSCRIBED + """
+                                               and p.createdAt <= :upTo
+                                               """ + ORDER_BY_KEYSET)
+    List<PostSummary> findFeedUpTo(@Param("username") String username,
+                                   @Param("upTo") LocalDateTime upTo,
+                                   Limit limit);
+
+    // Topics are the caller's subscriptions that have posts left out of the timelines, see NotFannedOutTopics.
+    @Query(SELECT_SUMMARY + WHERE_IN_TOPICS + NOT_FANNED_OUT + ORDER_BY_KEYSET)
+    List<PostSummary> findNotFannedOut(@Param("topicIds") Collection<UUID> topicIds, Limit limit);
+
+    @Query(SELECT_SUMMARY + WHERE_IN_TOPICS + NOT_FANNED_OUT + AFTER_KEYSET + ORDER_BY_KEYSET)
+    List<PostSummary> findNotFannedOutAfter(@Param("topicIds") Collection<UUID> topicIds,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") UUID id,
+                                            Limit limit);
+
+    @Query("select distinct p.topic.id from Post p where p.fannedOut = false")
+    List<UUID> findNotFannedOutTopicIds();
+
+    @Query(value = SEARCH_HITS + ORDER_BY_SEARCH_KEYSET, nativeQuery = true)
+    List<PostSearchHit> search(@Param("q") String q, @Param("limit") int limit);
+
+    @Query(value = SEARCH_HITS + AFTER_SEARCH_KEYSET + ORDER_BY_SEARCH_KEYSET, nativeQuery = true)
+    List<PostSearchHit> searchAfter(@Param("q") String q,
+                                    @Param("rank") float rank,
+                                    @Param("id") UUID id,
+                                    @Param("limit") int limit);
+
+    // Comments of the post only, through the (post_id, created_at, id) index.
+    @Query("""
+           select new com.openclassrooms.mddapi.repository.projection.PostVersion(
+                  p.updatedAt,
+                  a.updatedAt,
+                  t.updatedAt,
+                  (select count(c) from Comment c where c.post.id = p.id),
+                  (select max(c.createdAt) from Comment c where c.post.id = p.id),
+                  (select max(ca.updatedAt) from Comment c join c.author ca where c.post.id = p.id))
+           from Post p
+           join p.author a
+           join p.topic t
+           where p.id = :id
+           """)
+    Optional<PostVersion> findVersionById(@Param("id") UUID id);
+
+    @Query("""
+           select p from Post p
+           where p.topic.id = :topicId
+             and p.fannedOut = true
+             and not exists (select e from TimelineEntry e where e.post = p and e.user.id = :userId)
+           order by p.createdAt desc, p.id desc
+           """)
+    List<Post> findFannedOutMissingFromTimeline(@Param("topicId") UUID topicId,
+                                                @Param("userId") UUID userId,
+                                                Limit limit);
 }
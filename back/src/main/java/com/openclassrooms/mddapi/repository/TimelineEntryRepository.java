@@ -0,0 +1,93 @@
+package com.openclassrooms.mddapi.repository;
+
+import com.openclassrooms.mddapi.entity.TimelineEntry;
+import com.openclassrooms.mddapi.repository.projection.PostSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TimelineEntryRepository extends JpaRepository<TimelineEntry, UUID> {
+    String SELECT_TIMELINE = PostRepository.SUMMARY_FIELDS + """
+                                                             from TimelineEntry e join e.post p
+                                                             where e.user.username = :username
+                                                               and p.topic.id in (select s.id from User u join u.subscriptions s where u.username = :username)
+                                                             """;
+
+    String ORDER_BY_TIMELINE = """
+                               order by e.postCreatedAt desc, e.postId desc
+                               """;
+
+    @Query(SELECT_TIMELINE + ORDER_BY_TIMELINE)
+    List<PostSummary> findTimeline(@Param("username") String username, Limit limit);
+
+    @Query(SELECT_TIMELINE + """
+                             and (e.postCreatedAt, e.postId) < (:createdAt, :id)
+                             """ + ORDER_BY_TIMELINE)
+    List<PostSummary> findTimelineAfter(@Param("username") String username,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") UUID id,
+                                        Limit limit);
+
+    // One statement whatever the number of subscribers, ids come from the uuid_v7() function of db/vendor.
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+                   insert into timeline_entries (id, created_at, updated_at, user_id, post_id, post_created_at)
+                   select uuid_v7(), :postCreatedAt, :postCreatedAt, s.user_id, :postId, :postCreatedAt
+                   from subscriptions s
+                   where s.topic_id = :topicId
+                   """, nativeQuery = true)
+    int insertForSubscribers(@Param("topicId") UUID topicId,
+                             @Param("postId") UUID postId,
+                             @Param("postCreatedAt") LocalDateTime postCreatedAt);
+
+    @Query("""
+           select e.user.id from TimelineEntry e
+           where e.user.id in :userIds
+           group by e.user.id
+           having count(e) > :maxLength
+           """)
+    List<UUID> findUserIdsWithMoreEntriesThan(@Param("userIds") Collection<UUID> userIds,
+                                              @Param("maxLength") long maxLength);
+
+    @Query("""
+           select e.user.id from TimelineEntry e
+           where e.user.id in (select u.id from User u join u.subscriptions s where s.id = :topicId)
+           group by e.user.id
+           having count(e) > :maxLength
+           """)
+    List<UUID> findSubscriberIdsWithMoreEntriesThan(@Param("topicId") UUID topicId,
+                                                    @Param("maxLength") long maxLength);
+
+    @Query("""
+           select e.postCreatedAt from TimelineEntry e
+           where e.user.id = :userId
+           order by e.postCreatedAt desc
+           """)
+    List<LocalDateTime> findPostCreatedAts(@Param("userId") UUID userId, Pageable pageable);
+
+    @Modifying
+    @Query("""
+           delete from TimelineEntry e
+           where e.user.id = :userId
+             and e.postCreatedAt <= :cutoff
+           """)
+    int deleteByUserIdUpTo(@Param("userId") UUID userId, @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("""
+           delete from TimelineEntry e
+           where e.user.id = :userId
+             and e.post.id in (select p.id from Post p where p.topic.id = :topicId)
+           """)
+    int deleteByUserIdAndTopicId(@Param("userId") UUID userId, @Param("topicId") UUID topicId);
+}
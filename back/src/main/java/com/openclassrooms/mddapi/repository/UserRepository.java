@@ -2,8 +2,13 @@ package com.openclassrooms.mddapi.repository;
 
 import com.openclassrooms.mddapi.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,12 +18,53 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     Optional<User> findByEmail(String email);
 
-    Boolean existsByUsername(String username);
-
-    Boolean existsByEmail(String email);
+    @Query("select u.id from User u where u.username = :username")
+    Optional<UUID> findIdByUsername(@Param("username") String username);
 
     Optional<User> findByUsernameOrEmail(String username, String email);
 
+    @Query("select s.id from User u join u.subscriptions s where u.username = :username")
+    List<UUID> findSubscriptionIdsByUsername(@Param("username") String username);
+
+    // Stops counting at maxCount: only whether a topic is above the fan-out threshold matters.
+    @Query(value = """
+                   select count(*) from (select 1 from subscriptions s where s.topic_id = :topicId limit :maxCount) subscribers
+                   """, nativeQuery = true)
+    long countSubscribersUpTo(@Param("topicId") UUID topicId, @Param("maxCount") long maxCount);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+                   insert into subscriptions (user_id, topic_id)
+                   select u.id, t.id from users u cross join topics t
+                   where u.username = :username and t.id = :topicId
+                   on conflict do nothing
+                   """, nativeQuery = true)
+    int subscribe(@Param("username") String username, @Param("topicId") UUID topicId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+                   delete from subscriptions
+                   where topic_id = :topicId
+                     and user_id = (select u.id from users u where u.username = :username)
+                   """, nativeQuery = true)
+    int unsubscribe(@Param("username") String username, @Param("topicId") UUID topicId);
+
+    // Only if the hash is still the one that was checked, other columns are left as they are in the database.
+    @Modifying
+    @Query("update User u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+    int updatePassword(@Param("id") UUID id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    @Query("select u.timelineTrimmedAt from User u where u.username = :username")
+    Optional<LocalDateTime> findTimelineTrimmedAtByUsername(@Param("username") String username);
+
+    @Modifying
+    @Query("""
+           update User u set u.timelineTrimmedAt = :trimmedAt
+           where u.id = :id
+             and (u.timelineTrimmedAt is null or u.timelineTrimmedAt < :trimmedAt)
+           """)
+    int raiseTimelineTrimmedAt(@Param("id") UUID id, @Param("trimmedAt") LocalDateTime trimmedAt);
+
     default Optional<User> findByLogin(String login) {
         return findByUsernameOrEmail(login, login);
     }
@@ -0,0 +1,5 @@
+package com.openclassrooms.mddapi.repository.projection;
+
+public interface PostSearchHit extends PostSummary {
+    float getRank();
+}
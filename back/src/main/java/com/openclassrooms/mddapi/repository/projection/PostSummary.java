@@ -0,0 +1,15 @@
+package com.openclassrooms.mddapi.repository.projection;
+
+import com.openclassrooms.mddapi.pagination.Keyset;
+
+public interface PostSummary extends Keyset {
+    String getTitle();
+
+    String getContent();
+
+    String getAuthor();
+
+    String getTopic();
+
+    long getCommentCount();
+}
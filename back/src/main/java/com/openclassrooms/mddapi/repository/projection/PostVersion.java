@@ -0,0 +1,15 @@
+package com.openclassrooms.mddapi.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last modification times and comment count of the rows a single post response is rendered from, hashed into its
+ * ETag. A new comment raises the count even when it commits after a more recent one.
+ */
+public record PostVersion(LocalDateTime postModifiedAt,
+                          LocalDateTime authorModifiedAt,
+                          LocalDateTime topicModifiedAt,
+                          Long comments,
+                          LocalDateTime commentsCreatedAt,
+                          LocalDateTime commentAuthorsModifiedAt) {
+}
@@ -0,0 +1,31 @@
+package com.openclassrooms.mddapi.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link BCryptPasswordEncoder} only asks for a rehash when the stored cost is below its strength. This one asks
+ * whenever the cost differs, so that lowering {@code security.password-encoder.bcrypt-strength} also applies to
+ * existing users on their next login.
+ */
+public class BCryptStrengthPasswordEncoder extends BCryptPasswordEncoder {
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final int strength;
+
+    public BCryptStrengthPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_HASH.matcher(encodedPassword);
+        return matcher.matches() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+}
@@ -2,6 +2,8 @@ package com.openclassrooms.mddapi.security;
 
 import com.openclassrooms.mddapi.repository.UserRepository;
 import io.jsonwebtoken.JwtException;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,12 +20,16 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtils jwtUtils;
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final ObservationRegistry observationRegistry;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -38,31 +44,57 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String token = authHeader.substring(7);
 
         try {
-            String username = jwtUtils.extractUsername(token);
+            VerifiedToken verifiedToken = verifiedTokenCache.get(token, this::verify);
 
-            if (username != null && SecurityContextHolder.getContext()
-                                                         .getAuthentication() == null) {
-                userRepository.findByUsername(username)
-                              .ifPresent(user -> {
-                                  UserDetails userDetails = User.withUsername(user.getUsername())
-                                                                .password(user.getPassword())
-                                                                .authorities(Collections.emptyList())
-                                                                .build();
-
-                                  if (jwtUtils.isTokenValid(token, userDetails.getUsername())) {
-                                      UsernamePasswordAuthenticationToken authentication =
-                                              new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                                      authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                                      SecurityContextHolder.getContext()
-                                                           .setAuthentication(authentication);
-                                  }
+            if (SecurityContextHolder.getContext()
+                                     .getAuthentication() == null) {
+                principalCache.get(verifiedToken.username(), this::observeLoadUserDetails)
+                              .ifPresent(userDetails -> {
+                                  UsernamePasswordAuthenticationToken authentication =
+                                          new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                                  authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                                  SecurityContextHolder.getContext()
+                                                       .setAuthentication(authentication);
                               });
             }
-        } catch (JwtException e) {
+        } catch (JwtException | IllegalArgumentException e) {
             SecurityContextHolder.clearContext();
         }
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Signature check on a token cache miss, timed and traced as {@code auth.jwt.verify} and tagged with the outcome.
+     * Cache hits are not timed so that the timer only reflects the cost of verification.
+     */
+    private VerifiedToken verify(String token) {
+        Observation verification = Observation.start("auth.jwt.verify", observationRegistry);
+        String outcome = "error";
+        try (Observation.Scope ignored = verification.openScope()) {
+            VerifiedToken verifiedToken = jwtUtils.parse(token);
+            outcome = "valid";
+            return verifiedToken;
+        } catch (JwtException | IllegalArgumentException e) {
+            outcome = "invalid";
+            throw e;
+        } finally {
+            verification.lowCardinalityKeyValue("outcome", outcome)
+                        .stop();
+        }
+    }
+
+    private Optional<UserDetails> observeLoadUserDetails(String username) {
+        return Observation.createNotStarted("auth.principal.load", observationRegistry)
+                          .observe(() -> loadUserDetails(username));
+    }
+
+    private Optional<UserDetails> loadUserDetails(String username) {
+        return userRepository.findByUsername(username)
+                             .map(user -> User.withUsername(user.getUsername())
+                                              .password(user.getPassword())
+                                              .authorities(Collections.emptyList())
+                                              .build());
+    }
 }
 
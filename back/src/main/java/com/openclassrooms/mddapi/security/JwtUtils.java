@@ -2,6 +2,7 @@ package com.openclassrooms.mddapi.security;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,9 +15,13 @@ import java.util.Date;
 @Component
 public class JwtUtils {
     private final SecretKey key;
+    private final JwtParser parser;
 
     public JwtUtils(@Value("${jwt.secret}") String secret) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                          .verifyWith(key)
+                          .build();
     }
 
     public String generateToken(String username) {
@@ -28,29 +33,18 @@ public class JwtUtils {
                    .compact();
     }
 
-    public String extractUsername(String token) {
-        return getClaims(token).getSubject();
-    }
-
-    public boolean isTokenValid(String token, String username) {
-        try {
-            String tokenUsername = extractUsername(token);
-            return tokenUsername.equals(username) && !isTokenExpired(token);
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+    /**
+     * Verifies the signature and expiration of the token in a single parse.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public VerifiedToken parse(String token) {
+        Claims claims = parser.parseSignedClaims(token)
+                              .getPayload();
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            throw new JwtException("Token has no subject or expiration");
         }
+        return new VerifiedToken(claims.getSubject(), claims.getExpiration()
+                                                            .toInstant());
     }
-
-    private boolean isTokenExpired(String token) {
-        Date expiration = getClaims(token).getExpiration();
-        return expiration.before(new Date());
-    }
-
-    private Claims getClaims(String token) {
-        return Jwts.parser()
-                   .verifyWith(key)
-                   .build()
-                   .parseSignedClaims(token)
-                   .getPayload();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,6 @@
+package com.openclassrooms.mddapi.security;
+
+import java.time.Instant;
+
+public record VerifiedToken(String username, Instant expiresAt) {
+}
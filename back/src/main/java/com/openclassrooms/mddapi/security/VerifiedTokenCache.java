@@ -0,0 +1,93 @@
+package com.openclassrooms.mddapi.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Function;
+
+/**
+ * Tokens that already passed signature verification, keyed by their SHA-256 digest so that raw tokens are never kept
+ * in memory. Each entry expires together with its token.
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+    private final Cache<String, VerifiedToken> cache;
+
+    @Autowired
+    public VerifiedTokenCache(@Value("${security.token-cache.max-size:10000}") long maxSize) {
+        this(maxSize, Ticker.systemTicker());
+    }
+
+    VerifiedTokenCache(long maxSize, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                             .maximumSize(maxSize)
+                             .expireAfter(new UntilTokenExpiration())
+                             .ticker(ticker)
+                             .recordStats()
+                             .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "verified-tokens");
+    }
+
+    /**
+     * @param verifier called on a cache miss, its exceptions are propagated and nothing is cached. It runs outside of
+     *                 the cache's map locks (unlike {@code Cache.get(key, mappingFunction)}) so that verification
+     *                 never blocks other lookups or pins a virtual thread's carrier.
+     */
+    public VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+        String digest = digest(token);
+        VerifiedToken cached = cache.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        VerifiedToken verified = verifier.apply(token);
+        cache.put(digest, verified);
+        return verified;
+    }
+
+    private static String digest(String token) {
+        try {
+            return HexFormat.of()
+                            .formatHex(MessageDigest.getInstance("SHA-256")
+                                                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class UntilTokenExpiration implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+            Duration remaining = Duration.between(Instant.now(), token.expiresAt());
+            return remaining.isNegative() ? 0 : remaining.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
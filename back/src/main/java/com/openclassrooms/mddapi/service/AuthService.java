@@ -7,29 +7,38 @@ import com.openclassrooms.mddapi.entity.User;
 import com.openclassrooms.mddapi.mapper.UserMapper;
 import com.openclassrooms.mddapi.repository.UserRepository;
 import com.openclassrooms.mddapi.security.JwtUtils;
+import com.openclassrooms.mddapi.security.PasswordHasher;
+import com.openclassrooms.mddapi.security.PrincipalCache;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Optional;
 
 @Service
+@Observed
 @RequiredArgsConstructor
 public class AuthService {
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtUtils jwtUtils;
     private final UserMapper userMapper;
+    private final PrincipalCache principalCache;
+    private final TransactionTemplate transactionTemplate;
 
     public AuthResponse register(RegisterRequest request) {
-        if (userRepository.existsByEmail(request.getEmail()) || userRepository.existsByUsername(request.getUsername()))
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "Username or email already exists");
-
         User user = userMapper.toEntity(request);
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        userRepository.save(user);
+        user.setPassword(passwordHasher.encode(request.getPassword()));
+
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Username or email already exists");
+        }
 
         return new AuthResponse(jwtUtils.generateToken(user.getUsername()));
     }
@@ -43,9 +52,25 @@ public class AuthService {
 
         User user = optionalUser.get();
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword()))
+        if (!passwordHasher.matches(request.getPassword(), user.getPassword()))
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
 
+        if (passwordHasher.upgradeEncoding(user.getPassword())) {
+            rehash(user, passwordHasher.encode(request.getPassword()));
+        }
+
         return new AuthResponse(jwtUtils.generateToken(user.getUsername()));
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes only the password column of the row, and only if the hash is still the one that was checked: the user was
+     * read outside of any transaction, saving it would write back every column as it was read.
+     */
+    private void rehash(User user, String newHash) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (userRepository.updatePassword(user.getId(), user.getPassword(), newHash) > 0) {
+                principalCache.invalidate(user.getUsername());
+            }
+        });
+    }
+}
@@ -2,28 +2,37 @@ package com.openclassrooms.mddapi.service;
 
 import com.openclassrooms.mddapi.dto.comment.request.CommentRequest;
 import com.openclassrooms.mddapi.dto.comment.response.CommentResponse;
+import com.openclassrooms.mddapi.dto.page.response.CursorPageResponse;
 import com.openclassrooms.mddapi.entity.Comment;
 import com.openclassrooms.mddapi.entity.Post;
 import com.openclassrooms.mddapi.entity.User;
 import com.openclassrooms.mddapi.mapper.CommentMapper;
+import com.openclassrooms.mddapi.pagination.Cursor;
+import com.openclassrooms.mddapi.pagination.CursorPages;
 import com.openclassrooms.mddapi.repository.CommentRepository;
+import com.openclassrooms.mddapi.repository.ContentVersionRepository;
 import com.openclassrooms.mddapi.repository.PostRepository;
 import com.openclassrooms.mddapi.repository.UserRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
 import java.util.UUID;
 
 @Service
+@Observed
 @RequiredArgsConstructor
 public class CommentService {
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final CommentMapper commentMapper;
+    private final ContentVersionRepository contentVersionRepository;
 
     @Transactional
     public CommentResponse createComment(UUID postId, CommentRequest request, String username) {
@@ -36,6 +45,50 @@ public class CommentService {
         comment.setPost(post);
 
         Comment saved = commentRepository.save(comment);
+        contentVersionRepository.increment();
         return commentMapper.toResponse(saved);
     }
+
+    @Transactional
+    public List<CommentResponse> createComments(UUID postId, List<CommentRequest> requests, String username) {
+        User author = userRepository.findByUsername(username)
+                                    .orElseThrow();
+        Post post = postRepository.findById(postId)
+                                  .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
+        List<Comment> comments = requests.stream()
+                                         .map(request -> {
+                                             Comment comment = commentMapper.toEntity(request);
+                                             comment.setAuthor(author);
+                                             comment.setPost(post);
+                                             return comment;
+                                         })
+                                         .toList();
+
+        List<Comment> saved = commentRepository.saveAll(comments);
+        contentVersionRepository.increment();
+        return commentMapper.toResponseList(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CommentResponse> getComments(UUID postId, String cursor, Integer limit) {
+        if (!postRepository.existsById(postId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
+        }
+        return findComments(postId, cursor, limit);
+    }
+
+    CursorPageResponse<CommentResponse> findComments(UUID postId, String cursor, Integer limit) {
+        int pageSize = CursorPages.pageSize(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+
+        List<Comment> comments;
+        if (cursor == null || cursor.isBlank()) {
+            comments = commentRepository.findByPostId(postId, fetchLimit);
+        } else {
+            Cursor after = Cursor.decode(cursor);
+            comments = commentRepository.findByPostIdAfter(postId, after.createdAt(), after.id(), fetchLimit);
+        }
+
+        return CursorPages.of(comments, pageSize, commentMapper::toResponseList);
+    }
 }
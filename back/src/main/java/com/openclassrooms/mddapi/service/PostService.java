@@ -1,36 +1,137 @@
 package com.openclassrooms.mddapi.service;
 
+import com.openclassrooms.mddapi.config.ReadFromReplica;
+import com.openclassrooms.mddapi.dto.comment.response.CommentResponse;
+import com.openclassrooms.mddapi.dto.page.response.CursorPageResponse;
 import com.openclassrooms.mddapi.dto.post.request.PostRequest;
 import com.openclassrooms.mddapi.dto.post.response.PostResponse;
+import com.openclassrooms.mddapi.dto.post.response.PostSummaryResponse;
 import com.openclassrooms.mddapi.entity.Post;
 import com.openclassrooms.mddapi.entity.Topic;
 import com.openclassrooms.mddapi.entity.User;
 import com.openclassrooms.mddapi.mapper.PostMapper;
+import com.openclassrooms.mddapi.pagination.Cursor;
+import com.openclassrooms.mddapi.pagination.CursorPages;
+import com.openclassrooms.mddapi.pagination.SearchCursor;
+import com.openclassrooms.mddapi.repository.ContentVersionRepository;
 import com.openclassrooms.mddapi.repository.PostRepository;
 import com.openclassrooms.mddapi.repository.TopicRepository;
 import com.openclassrooms.mddapi.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.openclassrooms.mddapi.repository.projection.PostSearchHit;
+import com.openclassrooms.mddapi.repository.projection.PostSummary;
+import com.openclassrooms.mddapi.web.ETags;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
-@RequiredArgsConstructor
+@Observed
 public class PostService {
     private final PostRepository postRepository;
+    private final ContentVersionRepository contentVersionRepository;
     private final UserRepository userRepository;
     private final TopicRepository topicRepository;
     private final PostMapper postMapper;
+    private final CommentService commentService;
+    private final TimelineService timelineService;
+    private final DistributionSummary timelineFeedSize;
+    private final DistributionSummary postsFeedSize;
+    private final ObservationRegistry observationRegistry;
 
+    public PostService(PostRepository postRepository,
+                       ContentVersionRepository contentVersionRepository,
+                       UserRepository userRepository,
+                       TopicRepository topicRepository,
+                       PostMapper postMapper,
+                       CommentService commentService,
+                       TimelineService timelineService,
+                       MeterRegistry meterRegistry,
+                       ObservationRegistry observationRegistry) {
+        this.postRepository = postRepository;
+        this.contentVersionRepository = contentVersionRepository;
+        this.userRepository = userRepository;
+        this.topicRepository = topicRepository;
+        this.postMapper = postMapper;
+        this.commentService = commentService;
+        this.timelineService = timelineService;
+        this.timelineFeedSize = feedSize("timeline", meterRegistry);
+        this.postsFeedSize = feedSize("posts", meterRegistry);
+        this.observationRegistry = observationRegistry;
+    }
+
+    private static DistributionSummary feedSize(String source, MeterRegistry meterRegistry) {
+        return DistributionSummary.builder("feed.page.size")
+                                  .description("Posts returned per feed page")
+                                  .tag("source", source)
+                                  .publishPercentileHistogram()
+                                  .maximumExpectedValue((double) CursorPages.MAX_LIMIT)
+                                  .register(meterRegistry);
+    }
+
+    @ReadFromReplica
+    @Transactional(readOnly = true)
+    public List<PostSummaryResponse> getAllPosts() {
+        return postMapper.toSummaryResponseList(postRepository.findAllSummaries());
+    }
+
+    /**
+     * Same content as {@link #getAllPosts()}, handed to {@code consumer} one post at a time while the result set is
+     * scrolled, so memory does not grow with the number of posts.
+     */
+    @ReadFromReplica
+    @Transactional(readOnly = true)
+    public void streamAllPosts(Consumer<PostSummaryResponse> consumer) {
+        try (Stream<PostSummary> posts = postRepository.streamAllSummaries()) {
+            posts.map(postMapper::toSummaryResponse)
+                 .forEach(consumer);
+        }
+    }
+
+    @ReadFromReplica
     @Transactional(readOnly = true)
-    public List<PostResponse> getAllPosts() {
-        return postMapper.toResponseList(postRepository.findAll());
+    public String getAllPostsETag() {
+        return ETags.of(contentVersionRepository.findVersion());
     }
 
+    @Transactional(readOnly = true)
+    public String getPostETag(UUID postId) {
+        return ETags.of(postRepository.findVersionById(postId)
+                                      .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                                                                                     "Post not found")));
+    }
+
+    /**
+     * Taken from the page bounds and the user's subscriptions, so that it is known before the page is read.
+     */
+    @ReadFromReplica
+    @Transactional(readOnly = true)
+    public String getFeedETag(String username, String cursor, Integer limit, Sort.Direction direction) {
+        List<UUID> topicIds = userRepository.findSubscriptionIdsByUsername(username)
+                                            .stream()
+                                            .sorted()
+                                            .toList();
+        return ETags.of(contentVersionRepository.findVersion(), topicIds, direction, cursor,
+                        CursorPages.pageSize(limit));
+    }
+
+    @Transactional
     public PostResponse createPost(PostRequest postRequest, String username) {
         User user = userRepository.findByUsername(username)
                                   .orElseThrow();
@@ -40,23 +141,113 @@ public class PostService {
 
         post.setTopic(topic);
         post.setAuthor(user);
+        timelineService.prepareFanOut(post);
         Post savedPost = postRepository.save(post);
+        timelineService.fanOut(savedPost);
+        contentVersionRepository.increment();
 
         return postMapper.toResponse(savedPost);
     }
 
+    /**
+     * Bulk import: every post is persisted in one transaction and flushed as JDBC batches
+     * ({@code hibernate.jdbc.batch_size}). Imported posts skip the fan-out and are read from the posts table at feed
+     * time, like posts of large topics.
+     */
+    @Transactional
+    public List<PostResponse> createPosts(List<PostRequest> postRequests, String username) {
+        User user = userRepository.findByUsername(username)
+                                  .orElseThrow();
+        Set<UUID> topicIds = postRequests.stream()
+                                         .map(PostRequest::getTopicId)
+                                         .collect(Collectors.toSet());
+        Map<UUID, Topic> topics = topicRepository.findAllById(topicIds)
+                                                 .stream()
+                                                 .collect(Collectors.toMap(Topic::getId, Function.identity()));
+        if (topics.size() != topicIds.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Topic not found");
+        }
+
+        List<Post> posts = postRequests.stream()
+                                       .map(postRequest -> {
+                                           Post post = postMapper.toEntity(postRequest);
+                                           post.setTopic(topics.get(postRequest.getTopicId()));
+                                           post.setAuthor(user);
+                                           return post;
+                                       })
+                                       .toList();
+
+        List<Post> savedPosts = postRepository.saveAll(posts);
+        timelineService.skipFanOut(topicIds);
+        contentVersionRepository.increment();
+
+        return postMapper.toResponseList(savedPosts);
+    }
+
     @Transactional(readOnly = true)
     public PostResponse getPostById(UUID postId) {
-        Post post = postRepository.findById(postId)
+        Post post = postRepository.findWithAuthorAndTopicById(postId)
                                   .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found"));
-        return postMapper.toResponse(post);
+        CursorPageResponse<CommentResponse> comments = commentService.findComments(postId, null, null);
+
+        PostResponse response = postMapper.toResponse(post);
+        response.setComments(comments.getItems());
+        response.setCommentsNextCursor(comments.getNextCursor());
+        return response;
     }
 
+    /**
+     * Feed page in {@code direction} of creation date, {@code cursor} must come from a page of the same direction.
+     */
+    @ReadFromReplica
     @Transactional(readOnly = true)
-    public List<PostResponse> getFeed(String username) {
-        User user = userRepository.findByUsername(username)
-                                  .orElseThrow();
-        List<Post> posts = postRepository.findAllByTopicInOrderByCreatedAtDesc(user.getSubscriptions());
-        return postMapper.toResponseList(posts);
+    public CursorPageResponse<PostSummaryResponse> getFeed(String username,
+                                                           String cursor,
+                                                           Integer limit,
+                                                           Sort.Direction direction) {
+        int pageSize = CursorPages.pageSize(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+
+        Cursor after = cursor == null || cursor.isBlank() ? null : Cursor.decode(cursor);
+        boolean fromTimeline = timelineService.isEnabled() && direction.isDescending();
+
+        List<PostSummary> posts;
+        if (fromTimeline) {
+            posts = timelineService.findFeed(username, after, fetchLimit);
+        } else if (direction.isAscending()) {
+            posts = after == null
+                    ? postRepository.findFeedOldestFirst(username, fetchLimit)
+                    : postRepository.findFeedOldestFirstAfter(username, after.createdAt(), after.id(), fetchLimit);
+        } else if (after == null) {
+            posts = postRepository.findFeed(username, fetchLimit);
+        } else {
+            posts = postRepository.findFeedAfter(username, after.createdAt(), after.id(), fetchLimit);
+        }
+
+        CursorPageResponse<PostSummaryResponse> page = Observation.createNotStarted("feed.mapping", observationRegistry)
+                                                                  .observe(() -> CursorPages.of(posts, pageSize,
+                                                                                                postMapper::toSummaryResponseList));
+        DistributionSummary feedSize = fromTimeline ? timelineFeedSize : postsFeedSize;
+        feedSize.record(page.getItems()
+                            .size());
+        return page;
+    }
+
+    @ReadFromReplica
+    @Transactional(readOnly = true)
+    public CursorPageResponse<PostSummaryResponse> search(String q, String cursor, Integer limit) {
+        if (q == null || q.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query is required");
+        }
+        int pageSize = CursorPages.pageSize(limit);
+
+        SearchCursor after = cursor == null || cursor.isBlank() ? null : SearchCursor.decode(cursor);
+
+        List<PostSearchHit> hits = after == null
+                ? postRepository.search(q, pageSize + 1)
+                : postRepository.searchAfter(q, after.rank(), after.id(), pageSize + 1);
+
+        return CursorPages.of(hits, pageSize, postMapper::toSearchResponseList, hit -> SearchCursor.of(hit)
+                                                                                                 .encode());
     }
 }
@@ -0,0 +1,214 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.cache.NotFannedOutTopics;
+import com.openclassrooms.mddapi.entity.Post;
+import com.openclassrooms.mddapi.entity.TimelineEntry;
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.event.PostFannedOutEvent;
+import com.openclassrooms.mddapi.event.TimelineEntriesAddedEvent;
+import com.openclassrooms.mddapi.pagination.Cursor;
+import com.openclassrooms.mddapi.pagination.Keyset;
+import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.TimelineEntryRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.repository.projection.PostSummary;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Fan-out-on-write feed: posts are pushed to a bounded timeline per subscriber when they are created, except for
+ * topics with more than {@code feed.fan-out.max-subscribers} subscribers whose posts stay {@code fannedOut = false}
+ * and are read from the posts table at feed time.
+ */
+@Service
+public class TimelineService {
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NotFannedOutTopics notFannedOutTopics;
+    private final boolean enabled;
+    private final long maxSubscribers;
+    private final int maxLength;
+
+    public TimelineService(TimelineEntryRepository timelineEntryRepository,
+                           PostRepository postRepository,
+                           UserRepository userRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           NotFannedOutTopics notFannedOutTopics,
+                           @Value("${feed.fan-out.enabled:false}") boolean enabled,
+                           @Value("${feed.fan-out.max-subscribers:10000}") long maxSubscribers,
+                           @Value("${feed.timeline.max-length:1000}") int maxLength) {
+        this.timelineEntryRepository = timelineEntryRepository;
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.notFannedOutTopics = notFannedOutTopics;
+        this.enabled = enabled;
+        this.maxSubscribers = maxSubscribers;
+        this.maxLength = maxLength;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Decides, before {@code post} is persisted, whether it is fanned out so that {@code fannedOut} is part of its
+     * INSERT rather than a later UPDATE.
+     */
+    public void prepareFanOut(Post post) {
+        if (!enabled) {
+            return;
+        }
+
+        UUID topicId = post.getTopic()
+                           .getId();
+        if (userRepository.countSubscribersUpTo(topicId, maxSubscribers + 1) > maxSubscribers) {
+            notFannedOutTopics.addAll(List.of(topicId));
+        } else {
+            post.setFannedOut(true);
+        }
+    }
+
+    /**
+     * Appends a persisted post prepared by {@link #prepareFanOut(Post)} to its subscribers' timelines in one statement,
+     * timelines are trimmed after commit.
+     */
+    @Observed
+    @Transactional
+    public void fanOut(Post post) {
+        if (!post.isFannedOut()) {
+            return;
+        }
+
+        UUID topicId = post.getTopic()
+                           .getId();
+        if (timelineEntryRepository.insertForSubscribers(topicId, post.getId(), post.getCreatedAt()) > 0) {
+            eventPublisher.publishEvent(new PostFannedOutEvent(topicId));
+        }
+    }
+
+    /**
+     * Posts written without {@link #fanOut(Post)}, such as bulk imports, are read from the posts table at feed time.
+     */
+    public void skipFanOut(Collection<UUID> topicIds) {
+        if (enabled) {
+            notFannedOutTopics.addAll(topicIds);
+        }
+    }
+
+    @Observed
+    @Transactional
+    public void backfill(String username, UUID topicId) {
+        if (!enabled) {
+            return;
+        }
+
+        User user = userRepository.getReferenceById(findUserId(username));
+        List<Post> posts = postRepository.findFannedOutMissingFromTimeline(topicId, user.getId(), Limit.of(maxLength));
+        timelineEntryRepository.saveAll(posts.stream()
+                                             .map(post -> toEntry(user, post))
+                                             .toList());
+
+        if (posts.size() == maxLength) {
+            userRepository.raiseTimelineTrimmedAt(user.getId(), posts.getLast()
+                                                                     .getCreatedAt());
+        }
+        if (!posts.isEmpty()) {
+            eventPublisher.publishEvent(new TimelineEntriesAddedEvent(List.of(user.getId())));
+        }
+    }
+
+    @Observed
+    @Transactional
+    public void evict(String username, UUID topicId) {
+        if (enabled) {
+            timelineEntryRepository.deleteByUserIdAndTopicId(findUserId(username), topicId);
+        }
+    }
+
+    /**
+     * Timelines are trimmed to {@code feed.timeline.max-length} entries and backfills stop at as many posts, so
+     * fanned-out posts created at or before the user's {@code timelineTrimmedAt} may be missing from the timeline: that
+     * part of the feed is read from the posts table instead, newer pages and never trimmed timelines are not. Posts
+     * left out of the timelines are only looked up in the subscribed topics that have some.
+     */
+    @Observed
+    @Transactional(readOnly = true)
+    public List<PostSummary> findFeed(String username, Cursor after, Limit limit) {
+        List<PostSummary> timeline = after == null
+                ? timelineEntryRepository.findTimeline(username, limit)
+                : timelineEntryRepository.findTimelineAfter(username, after.createdAt(), after.id(), limit);
+
+        List<UUID> notFannedOutTopicIds = findNotFannedOutTopicIds(username);
+        List<PostSummary> notFannedOut;
+        if (notFannedOutTopicIds.isEmpty()) {
+            notFannedOut = List.of();
+        } else if (after == null) {
+            notFannedOut = postRepository.findNotFannedOut(notFannedOutTopicIds, limit);
+        } else {
+            notFannedOut = postRepository.findNotFannedOutAfter(notFannedOutTopicIds, after.createdAt(), after.id(), limit);
+        }
+
+        LocalDateTime trimmedAt = userRepository.findTimelineTrimmedAtByUsername(username)
+                                                .orElse(null);
+        List<PostSummary> trimmed = List.of();
+        if (trimmedAt != null && (timeline.size() < limit.max() || !timeline.getLast()
+                                                                           .getCreatedAt()
+                                                                           .isAfter(trimmedAt))) {
+            trimmed = after == null || after.createdAt()
+                                            .isAfter(trimmedAt)
+                    ? postRepository.findFeedUpTo(username, trimmedAt, limit)
+                    : postRepository.findFeedAfter(username, after.createdAt(), after.id(), limit);
+        }
+
+        return Stream.of(timeline, notFannedOut, trimmed)
+                     .flatMap(List::stream)
+                     .collect(Collectors.toMap(PostSummary::getId, Function.identity(), (first, second) -> first))
+                     .values()
+                     .stream()
+                     .sorted(Keyset.NEWEST_FIRST)
+                     .limit(limit.max())
+                     .toList();
+    }
+
+    private List<UUID> findNotFannedOutTopicIds(String username) {
+        Set<UUID> topicIds = notFannedOutTopics.get();
+        if (topicIds.isEmpty()) {
+            return List.of();
+        }
+        return userRepository.findSubscriptionIdsByUsername(username)
+                             .stream()
+                             .filter(topicIds::contains)
+                             .toList();
+    }
+
+    private UUID findUserId(String username) {
+        return userRepository.findIdByUsername(username)
+                             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+    }
+
+    private TimelineEntry toEntry(User user, Post post) {
+        return TimelineEntry.builder()
+                            .user(user)
+                            .post(post)
+                            .postCreatedAt(post.getCreatedAt())
+                            .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.event.PostFannedOutEvent;
+import com.openclassrooms.mddapi.event.TimelineEntriesAddedEvent;
+import com.openclassrooms.mddapi.repository.TimelineEntryRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Component
+public class TimelineTrimmer {
+    private static final int USER_IDS_CHUNK_SIZE = 1000;
+
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final UserRepository userRepository;
+    private final int maxLength;
+
+    public TimelineTrimmer(TimelineEntryRepository timelineEntryRepository,
+                           UserRepository userRepository,
+                           @Value("${feed.timeline.max-length:1000}") int maxLength) {
+        this.timelineEntryRepository = timelineEntryRepository;
+        this.userRepository = userRepository;
+        this.maxLength = maxLength;
+    }
+
+    @Async
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onEntriesAdded(TimelineEntriesAddedEvent event) {
+        List<UUID> userIds = List.copyOf(event.userIds());
+        for (int from = 0; from < userIds.size(); from += USER_IDS_CHUNK_SIZE) {
+            List<UUID> chunk = userIds.subList(from, Math.min(from + USER_IDS_CHUNK_SIZE, userIds.size()));
+            timelineEntryRepository.findUserIdsWithMoreEntriesThan(chunk, maxLength)
+                                   .forEach(this::trim);
+        }
+    }
+
+    @Async
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onPostFannedOut(PostFannedOutEvent event) {
+        timelineEntryRepository.findSubscriberIdsWithMoreEntriesThan(event.topicId(), maxLength)
+                               .forEach(this::trim);
+    }
+
+    private void trim(UUID userId) {
+        List<LocalDateTime> cutoff = timelineEntryRepository.findPostCreatedAts(userId, PageRequest.of(maxLength, 1));
+        if (!cutoff.isEmpty()) {
+            timelineEntryRepository.deleteByUserIdUpTo(userId, cutoff.getFirst());
+            userRepository.raiseTimelineTrimmedAt(userId, cutoff.getFirst());
+        }
+    }
+}
@@ -1,74 +1,60 @@
 package com.openclassrooms.mddapi.service;
 
+import com.openclassrooms.mddapi.cache.TopicCatalog;
 import com.openclassrooms.mddapi.dto.topic.response.TopicResponse;
-import com.openclassrooms.mddapi.entity.Topic;
-import com.openclassrooms.mddapi.entity.User;
-import com.openclassrooms.mddapi.mapper.TopicMapper;
 import com.openclassrooms.mddapi.repository.TopicRepository;
 import com.openclassrooms.mddapi.repository.UserRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 import java.util.UUID;
 
 @Service
+@Observed
 @RequiredArgsConstructor
 public class TopicService {
     private final TopicRepository topicRepository;
-    private final TopicMapper topicMapper;
+    private final TopicCatalog topicCatalog;
     private final UserRepository userRepository;
+    private final TimelineService timelineService;
 
-    @Transactional(readOnly = true)
+    // Not transactional: the catalogue is rebuilt in its own transaction on the primary, see TopicCatalog#snapshot.
     public List<TopicResponse> getAllTopics(String username) {
-        Set<UUID> subscribedTopicIds = userRepository.findByUsername(username)
-                                                     .map(user -> user.getSubscriptions()
-                                                                      .stream()
-                                                                      .map(Topic::getId)
-                                                                      .collect(Collectors.toSet()))
-                                                     .orElseGet(Set::of);
-
-        List<TopicResponse> responses = topicMapper.toResponseList(topicRepository.findAll());
-        responses.forEach(r -> r.setSubscribed(subscribedTopicIds.contains(r.getId())));
-        return responses;
+        TopicCatalog.Snapshot catalog = topicCatalog.snapshot();
+        BitSet subscribed = catalog.toBitSet(userRepository.findSubscriptionIdsByUsername(username));
+        return catalog.toResponses(subscribed);
     }
 
     @Transactional
     public void subscribe(UUID topicId, String username) {
-        User user = userRepository.findByUsername(username)
-                                  .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-        Topic topic = topicRepository.findById(topicId)
-                                     .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Topic not found"));
-
-        boolean alreadySubscribed = user.getSubscriptions()
-                                        .stream()
-                                        .anyMatch(subscription -> subscription.getId()
-                                                                              .equals(topicId));
-
-        if (!alreadySubscribed) {
-            user.getSubscriptions()
-                .add(topic);
-            userRepository.save(user);
+        if (userRepository.subscribe(username, topicId) > 0) {
+            timelineService.backfill(username, topicId);
+        } else {
+            requireUserAndTopic(topicId, username);
         }
     }
 
     @Transactional
     public void unsubscribe(UUID topicId, String username) {
-        User user = userRepository.findByUsername(username)
-                                  .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
-        topicRepository.findById(topicId)
-                       .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Topic not found"));
-
-        boolean removed = user.getSubscriptions()
-                              .removeIf(subscription -> subscription.getId()
-                                                                    .equals(topicId));
-        if (removed) {
-            userRepository.save(user);
+        if (userRepository.unsubscribe(username, topicId) > 0) {
+            timelineService.evict(username, topicId);
+        } else {
+            requireUserAndTopic(topicId, username);
         }
     }
+
+    // Only reached when the toggle was a no-op, to tell "already (un)subscribed" apart from a missing user or topic.
+    private void requireUserAndTopic(UUID topicId, String username) {
+        if (userRepository.findIdByUsername(username)
+                          .isEmpty())
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        if (!topicRepository.existsById(topicId))
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Topic not found");
+    }
 }
@@ -4,22 +4,32 @@ import com.openclassrooms.mddapi.dto.auth.request.RegisterRequest;
 import com.openclassrooms.mddapi.dto.auth.response.AuthResponse;
 import com.openclassrooms.mddapi.dto.user.response.UserResponse;
 import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.exception.ConstraintViolations;
 import com.openclassrooms.mddapi.mapper.UserMapper;
+import com.openclassrooms.mddapi.repository.ContentVersionRepository;
 import com.openclassrooms.mddapi.repository.UserRepository;
 import com.openclassrooms.mddapi.security.JwtUtils;
+import com.openclassrooms.mddapi.security.PasswordHasher;
+import com.openclassrooms.mddapi.security.PrincipalCache;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
+@Observed
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
+    private final ContentVersionRepository contentVersionRepository;
     private final UserMapper userMapper;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtUtils jwtUtils;
+    private final PrincipalCache principalCache;
+    private final TransactionTemplate transactionTemplate;
 
     public UserResponse retrieveMe(String username) {
         User user = userRepository.findByUsername(username)
@@ -29,32 +39,40 @@ public class UserService {
     }
 
     public AuthResponse updateMe(String username, RegisterRequest userRequest) {
-        User user = userRepository.findByUsername(username)
-                                  .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        // Hashed before the transaction starts, so that no connection is held while waiting for the hashing pool.
+        String password = userRequest.getPassword() == null ? null : passwordHasher.encode(userRequest.getPassword());
 
-        if (userRequest.getEmail() != null && !userRequest.getEmail()
-                                                          .equals(user.getEmail())) {
-            if (userRepository.existsByEmail(userRequest.getEmail())) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "Email already in use");
-            }
-        }
-
-        if (userRequest.getUsername() != null && !userRequest.getUsername()
-                                                             .equals(user.getUsername())) {
-            if (userRepository.existsByUsername(userRequest.getUsername())) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT, "Username already in use");
-            }
-        }
+        User updatedUser = transactionTemplate.execute(status -> {
+            User user = userRepository.findByUsername(username)
+                                      .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
 
-        userMapper.updateEntityFromRequest(userRequest, user);
+            userMapper.updateEntityFromRequest(userRequest, user);
 
-        if (userRequest.getPassword() != null) {
-            user.setPassword(passwordEncoder.encode(userRequest.getPassword()));
-        }
+            if (password != null) {
+                user.setPassword(password);
+            }
 
-        User updatedUser = userRepository.save(user);
+            User savedUser;
+            try {
+                savedUser = userRepository.saveAndFlush(user);
+            } catch (DataIntegrityViolationException e) {
+                throw conflict(e);
+            }
+            // Usernames are rendered as post authors.
+            contentVersionRepository.increment();
+            principalCache.invalidate(username);
+            return savedUser;
+        });
 
         String token = jwtUtils.generateToken(updatedUser.getUsername());
         return new AuthResponse(token);
     }
+
+    private static ResponseStatusException conflict(DataIntegrityViolationException e) {
+        if (ConstraintViolations.isViolated(e, User.UNIQUE_EMAIL))
+            return new ResponseStatusException(HttpStatus.CONFLICT, "Email already in use");
+        if (ConstraintViolations.isViolated(e, User.UNIQUE_USERNAME))
+            return new ResponseStatusException(HttpStatus.CONFLICT, "Username already in use");
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Username or email already in use");
+    }
 }
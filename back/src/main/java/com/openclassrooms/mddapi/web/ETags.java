@@ -0,0 +1,29 @@
+package com.openclassrooms.mddapi.web;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Strong ETags hashed from the versions a response is rendered from, or from its content when it is built in memory.
+ * Spring answers 304 when one matches If-None-Match. Parts must have a stable {@code toString()}, which records,
+ * collections and the Lombok DTOs all do.
+ */
+public final class ETags {
+    private ETags() {
+    }
+
+    public static String of(Object... parts) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                                         .digest(Arrays.deepToString(parts)
+                                                       .getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of()
+                                   .formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+-- Schema as it was generated by Hibernate (ddl-auto=update) before Flyway managed it. Databases created that way are
+-- baselined at version 1 and skip this script, V2 and its vendor scripts bring both kinds of databases to the same
+-- schema. Constraints are only named here, the ones generated by Hibernate are renamed by the vendor scripts.
+
+create table users (
+    id         UUID         not null,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    username   varchar(255) not null,
+    email      varchar(255) not null,
+    password   varchar(255) not null,
+    constraint pk_users primary key (id),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+);
+
+create table topics (
+    id          UUID         not null,
+    created_at  timestamp(6) not null,
+    updated_at  timestamp(6) not null,
+    title       varchar(255) not null,
+    description TEXT         not null,
+    constraint pk_topics primary key (id),
+    constraint uk_topics_title unique (title)
+);
+
+-- No primary key: the join table of a @ManyToMany list, duplicates were possible.
+create table subscriptions (
+    user_id  UUID not null,
+    topic_id UUID not null,
+    constraint fk_subscriptions_user foreign key (user_id) references users (id),
+    constraint fk_subscriptions_topic foreign key (topic_id) references topics (id)
+);
+
+create table posts (
+    id         UUID         not null,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    title      varchar(255) not null,
+    content    TEXT         not null,
+    author_id  UUID         not null,
+    topic_id   UUID         not null,
+    constraint pk_posts primary key (id),
+    constraint fk_posts_author foreign key (author_id) references users (id),
+    constraint fk_posts_topic foreign key (topic_id) references topics (id)
+);
+
+create table comments (
+    id         UUID         not null,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    content    TEXT         not null,
+    author_id  UUID         not null,
+    post_id    UUID         not null,
+    constraint pk_comments primary key (id),
+    constraint fk_comments_author foreign key (author_id) references users (id),
+    constraint fk_comments_post foreign key (post_id) references posts (id)
+);
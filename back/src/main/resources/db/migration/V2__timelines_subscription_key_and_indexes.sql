@@ -0,0 +1,52 @@
+-- Brings the V1 schema, created by V1 or by Hibernate, to the one the application maps. Databases that ran an
+-- application version with ddl-auto=update after V1 may already have some of these columns, tables and indexes, so
+-- they are only added when missing.
+
+alter table posts add column if not exists fanned_out BOOLEAN DEFAULT FALSE not null;
+
+create table if not exists timeline_entries (
+    id              UUID         not null,
+    created_at      timestamp(6) not null,
+    updated_at      timestamp(6) not null,
+    user_id         UUID         not null,
+    post_id         UUID         not null,
+    post_created_at timestamp(6) not null,
+    constraint pk_timeline_entries primary key (id),
+    constraint uk_timeline_entries_user_post unique (user_id, post_id),
+    constraint fk_timeline_entries_user foreign key (user_id) references users (id) on delete cascade,
+    constraint fk_timeline_entries_post foreign key (post_id) references posts (id) on delete cascade
+);
+
+-- Subscriptions get a primary key, duplicated rows are dropped on the way. The table is copied rather than altered in
+-- place: duplicates can't be told apart portably, and the generated foreign key names are unknown.
+create table subscriptions_deduplicated (
+    user_id  UUID not null,
+    topic_id UUID not null,
+    constraint pk_subscriptions primary key (user_id, topic_id)
+);
+insert into subscriptions_deduplicated (user_id, topic_id)
+select distinct user_id, topic_id
+from subscriptions;
+drop table subscriptions;
+alter table subscriptions_deduplicated rename to subscriptions;
+alter table subscriptions add constraint fk_subscriptions_user foreign key (user_id) references users (id);
+alter table subscriptions add constraint fk_subscriptions_topic foreign key (topic_id) references topics (id);
+
+-- Subscriptions by topic: fan-out subscriber lookups (the primary key leads with user_id for the feed).
+create index idx_subscriptions_topic on subscriptions (topic_id);
+
+-- Keyset scans: feed per topic, all posts listing, comments of a post, timeline of a user. Hibernate may have created
+-- some of them in ascending order, they are recreated to match the queries' "desc, desc" ordering.
+drop index if exists idx_posts_topic_created_at_id;
+drop index if exists idx_posts_created_at_id;
+drop index if exists idx_comments_post_created_at_id;
+drop index if exists idx_timeline_entries_user_post_created_at;
+create index idx_posts_topic_created_at_id on posts (topic_id, created_at desc, id desc);
+create index idx_posts_created_at_id on posts (created_at desc, id desc);
+create index idx_comments_post_created_at_id on comments (post_id, created_at desc, id desc);
+create index idx_timeline_entries_user_post_created_at on timeline_entries (user_id, post_created_at desc, post_id desc);
+
+-- Foreign keys not covered by a leading index column, for joins and cascading deletes.
+create index if not exists idx_posts_author on posts (author_id);
+create index if not exists idx_comments_author on comments (author_id);
+create index if not exists idx_timeline_entries_post on timeline_entries (post_id);
@@ -0,0 +1,4 @@
+-- Bound of the part of a user's timeline that may miss fanned-out posts (trimmed, or partly backfilled), null while the
+-- timeline holds all of them. Feeds only read the posts table at or below it (see TimelineService.findFeed).
+
+alter table users add column timeline_trimmed_at timestamp(6);
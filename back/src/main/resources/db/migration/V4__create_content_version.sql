@@ -0,0 +1,9 @@
+-- Single row counter raised by the transactions that change what the post listings and feeds render, their ETags are
+-- hashed from it instead of counting every post and comment (see ContentVersionRepository).
+create table content_version (
+    id      INTEGER not null,
+    version BIGINT  not null,
+    constraint pk_content_version primary key (id)
+);
+
+insert into content_version (id, version) values (1, 0);
@@ -0,0 +1,94 @@
+package com.openclassrooms.mddapi.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result ({@code -rf json}) with the one kept for a previous release and exits with status 1 when a
+ * benchmark got worse by more than the allowed percentage and by more than both error margins combined, so noise alone
+ * does not fail the build.
+ *
+ * <p>Arguments: {@code <current.json> <max-regression-percent> [baseline.json]}; without a baseline only the current
+ * scores are printed.
+ */
+public class BenchmarkComparison {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws IOException {
+        Map<String, JsonNode> current = read(Path.of(args[0]));
+        double maxRegression = Double.parseDouble(args[1]);
+        Map<String, JsonNode> baseline = args.length > 2 && !args[2].isBlank() ? read(Path.of(args[2])) : Map.of();
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode metric = entry.getValue()
+                                   .get("primaryMetric");
+            double score = metric.get("score")
+                                 .asDouble();
+            String unit = metric.get("scoreUnit")
+                                .asText();
+            JsonNode previous = baseline.get(entry.getKey());
+            if (previous == null) {
+                System.out.printf("%-90s %14s %14.3f %9s %s%n", entry.getKey(), "-", score, "new", unit);
+                continue;
+            }
+
+            JsonNode previousMetric = previous.get("primaryMetric");
+            double previousScore = previousMetric.get("score")
+                                                 .asDouble();
+            double change = (score - previousScore) / previousScore * 100;
+            // Throughput is better when higher, every other mode (time per operation) when lower
+            double worsening = entry.getValue()
+                                    .get("mode")
+                                    .asText()
+                                    .equals("thrpt") ? -change : change;
+            double errors = error(metric) + error(previousMetric);
+            boolean regressed = worsening > maxRegression && Math.abs(score - previousScore) > errors;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(), previousScore, score, change, unit,
+                              regressed ? "  REGRESSION" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, maxRegression);
+            System.exit(1);
+        }
+    }
+
+    private static double error(JsonNode metric) {
+        double error = metric.path("scoreError")
+                             .asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    /**
+     * Indexes results by benchmark name and parameters, e.g. {@code MapperBenchmark.summaries [pageSize=20]}.
+     */
+    private static Map<String, JsonNode> read(Path path) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : OBJECT_MAPPER.readTree(path.toFile())) {
+            String benchmark = result.get("benchmark")
+                                     .asText();
+            String key = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            Map<String, String> params = new TreeMap<>();
+            result.path("params")
+                  .properties()
+                  .forEach(param -> params.put(param.getKey(), param.getValue()
+                                                                    .asText()));
+            if (!params.isEmpty()) {
+                key += " " + params;
+            }
+            results.put(key, result);
+        }
+        return results;
+    }
+}
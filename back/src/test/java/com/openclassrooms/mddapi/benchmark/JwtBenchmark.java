@@ -0,0 +1,74 @@
+package com.openclassrooms.mddapi.benchmark;
+
+import com.openclassrooms.mddapi.security.JwtUtils;
+import com.openclassrooms.mddapi.security.VerifiedToken;
+import com.openclassrooms.mddapi.security.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authentication cost of a single request: {@code perRequestBefore} replays what the filter used to do (three parses,
+ * each building its own parser), {@code perRequestAfter} is the single parse done by {@link JwtUtils#parse(String)}
+ * and {@code perRequestCached} is a repeated token served by {@link VerifiedTokenCache}. {@code generateToken} is the
+ * signing done once per login or registration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+    static final String SECRET = "2PH78rrGfAV1VAFiQbmuZXS3wdHsM1YxRYqGDx5R1V5GzWATctQhtViX67W3PCLo6ep3rhmJIjrEmb9GVIiaeZlZJ06aV4SgQh5AEPeuUbVlak9tD3xOjW2EPuXgk2qg";
+
+    private SecretKey key;
+    private JwtUtils jwtUtils;
+    private VerifiedTokenCache verifiedTokenCache;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        jwtUtils = new JwtUtils(SECRET);
+        verifiedTokenCache = new VerifiedTokenCache(10_000);
+        token = jwtUtils.generateToken("alice");
+    }
+
+    private Claims parseWithFreshParser() {
+        return Jwts.parser()
+                   .verifyWith(key)
+                   .build()
+                   .parseSignedClaims(token)
+                   .getPayload();
+    }
+
+    @Benchmark
+    public boolean perRequestBefore() {
+        String username = parseWithFreshParser().getSubject();
+        String tokenUsername = parseWithFreshParser().getSubject();
+        Date expiration = parseWithFreshParser().getExpiration();
+        return username.equals(tokenUsername) && !expiration.before(new Date());
+    }
+
+    @Benchmark
+    public VerifiedToken perRequestAfter() {
+        return jwtUtils.parse(token);
+    }
+
+    @Benchmark
+    public VerifiedToken perRequestCached() {
+        return verifiedTokenCache.get(token, jwtUtils::parse);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken("alice");
+    }
+}
@@ -0,0 +1,104 @@
+package com.openclassrooms.mddapi.benchmark;
+
+import com.openclassrooms.mddapi.dto.comment.response.CommentResponse;
+import com.openclassrooms.mddapi.dto.post.response.PostResponse;
+import com.openclassrooms.mddapi.dto.post.response.PostSummaryResponse;
+import com.openclassrooms.mddapi.entity.Comment;
+import com.openclassrooms.mddapi.entity.Post;
+import com.openclassrooms.mddapi.entity.Topic;
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.mapper.CommentMapper;
+import com.openclassrooms.mddapi.mapper.PostMapper;
+import com.openclassrooms.mddapi.repository.projection.PostSummary;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping cost of the two read paths, for a page of {@code pageSize} rows: {@code summaries} is
+ * {@link PostMapper#toSummaryResponseList(List)} over {@link PostSummary} projections (the feed and the listings), built
+ * by the same projection factory Spring Data uses for query results; {@code postWithComments} is one post and its first
+ * comments page (the detail view). Rows are built once from fixed ids and dates so runs are comparable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private final PostMapper postMapper = Mappers.getMapper(PostMapper.class);
+    private final CommentMapper commentMapper = Mappers.getMapper(CommentMapper.class);
+    private List<PostSummary> summaries;
+    private Post post;
+    private List<Comment> comments;
+
+    @Setup
+    public void setUp() {
+        ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+        summaries = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            summaries.add(projectionFactory.createProjection(PostSummary.class, Map.of(
+                    "id", new UUID(1, i),
+                    "title", "Post " + i,
+                    "content", "Content of post " + i + " ".repeat(200),
+                    "author", "alice",
+                    "topic", "Java",
+                    "createdAt", CREATED_AT.plusMinutes(i),
+                    "commentCount", (long) i
+            )));
+        }
+
+        User author = User.builder()
+                          .id(new UUID(0, 1))
+                          .username("alice")
+                          .build();
+        post = Post.builder()
+                   .id(new UUID(1, 0))
+                   .title("Post")
+                   .content("Content of post" + " ".repeat(200))
+                   .author(author)
+                   .topic(Topic.builder()
+                               .id(new UUID(0, 2))
+                               .title("Java")
+                               .build())
+                   .createdAt(CREATED_AT)
+                   .build();
+        comments = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            comments.add(Comment.builder()
+                                .id(new UUID(2, i))
+                                .content("Comment " + i)
+                                .author(author)
+                                .post(post)
+                                .createdAt(CREATED_AT.plusSeconds(i))
+                                .build());
+        }
+    }
+
+    @Benchmark
+    public List<PostSummaryResponse> summaries() {
+        return postMapper.toSummaryResponseList(summaries);
+    }
+
+    @Benchmark
+    public PostResponse postWithComments() {
+        PostResponse response = postMapper.toResponse(post);
+        List<CommentResponse> page = commentMapper.toResponseList(comments);
+        response.setComments(page);
+        return response;
+    }
+}
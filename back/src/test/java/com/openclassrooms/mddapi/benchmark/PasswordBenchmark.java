@@ -0,0 +1,73 @@
+package com.openclassrooms.mddapi.benchmark;
+
+import com.openclassrooms.mddapi.config.SecurityConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one password check at login with the encoder built by {@link SecurityConfig}: {@code bcryptMatches} a
+ * {@code {bcrypt}} hash at each strength, {@code legacyBcryptMatches} an unprefixed BCrypt hash stored before the
+ * prefix was introduced (matched by the default encoder, then rehashed on login), and {@code pbkdf2Matches} a hash
+ * written when {@code security.password-encoder.id} selects PBKDF2, whose cost does not depend on the BCrypt strength.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordBenchmark {
+    private static final String PASSWORD = "S7trongP@ssw0rd!";
+    private static final String PBKDF2 = "pbkdf2@SpringSecurity_v5_8";
+
+    // The JWT filter is only used by the filter chain, not by the password encoder.
+    private static PasswordEncoder passwordEncoder(String idForEncode, int bcryptStrength) {
+        return new SecurityConfig(null).passwordEncoder(idForEncode, bcryptStrength);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Bcrypt {
+        @Param({"10", "12"})
+        public int strength;
+
+        private PasswordEncoder encoder;
+        private String hash;
+        private String legacyHash;
+
+        @Setup
+        public void setUp() {
+            encoder = passwordEncoder("bcrypt", strength);
+            hash = encoder.encode(PASSWORD);
+            legacyHash = new BCryptPasswordEncoder(strength).encode(PASSWORD);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Pbkdf2 {
+        private PasswordEncoder encoder;
+        private String hash;
+
+        @Setup
+        public void setUp() {
+            encoder = passwordEncoder(PBKDF2, 10);
+            hash = encoder.encode(PASSWORD);
+        }
+    }
+
+    @Benchmark
+    public boolean bcryptMatches(Bcrypt state) {
+        return state.encoder.matches(PASSWORD, state.hash);
+    }
+
+    @Benchmark
+    public boolean legacyBcryptMatches(Bcrypt state) {
+        return state.encoder.matches(PASSWORD, state.legacyHash);
+    }
+
+    @Benchmark
+    public boolean pbkdf2Matches(Pbkdf2 state) {
+        return state.encoder.matches(PASSWORD, state.hash);
+    }
+}
@@ -0,0 +1,105 @@
+package com.openclassrooms.mddapi.benchmark;
+
+import com.openclassrooms.mddapi.entity.UuidV7Generator;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk post/comment loads with random ({@code v4}) versus time-ordered ({@code v7}) primary keys. Each operation
+ * inserts one batch of posts and one batch of comments referencing them, so the primary key and the
+ * {@code comments.post_id} index both keep growing over the trial. Runs against an in-memory H2 database unless
+ * {@code BENCHMARK_JDBC_URL} (plus {@code BENCHMARK_JDBC_USERNAME} / {@code BENCHMARK_JDBC_PASSWORD}) points to a
+ * PostgreSQL instance, in which case the index sizes are printed at the end of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UuidInsertBenchmark {
+    private static final int BATCH_SIZE = 500;
+
+    @Param({"v4", "v7"})
+    public String version;
+
+    private Connection connection;
+    private PreparedStatement insertPost;
+    private PreparedStatement insertComment;
+    private final UUID[] postIds = new UUID[BATCH_SIZE];
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getenv()
+                      .getOrDefault("BENCHMARK_JDBC_URL", "jdbc:h2:mem:uuid_bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1"),
+                System.getenv()
+                      .getOrDefault("BENCHMARK_JDBC_USERNAME", "sa"),
+                System.getenv()
+                      .getOrDefault("BENCHMARK_JDBC_PASSWORD", ""));
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_comments");
+            statement.execute("DROP TABLE IF EXISTS bench_posts");
+            statement.execute("CREATE TABLE bench_posts (id UUID PRIMARY KEY, title VARCHAR(255) NOT NULL, " +
+                              "created_at TIMESTAMP NOT NULL)");
+            statement.execute("CREATE TABLE bench_comments (id UUID PRIMARY KEY, post_id UUID NOT NULL " +
+                              "REFERENCES bench_posts (id), content VARCHAR(255) NOT NULL, created_at TIMESTAMP NOT NULL)");
+            statement.execute("CREATE INDEX idx_bench_comments_post ON bench_comments (post_id)");
+        }
+        connection.commit();
+        insertPost = connection.prepareStatement("INSERT INTO bench_posts (id, title, created_at) VALUES (?, ?, ?)");
+        insertComment = connection.prepareStatement(
+                "INSERT INTO bench_comments (id, post_id, content, created_at) VALUES (?, ?, ?, ?)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        if (connection.getMetaData()
+                      .getDatabaseProductName()
+                      .equals("PostgreSQL")) {
+            try (Statement statement = connection.createStatement(); ResultSet sizes = statement.executeQuery(
+                    "SELECT relname, pg_relation_size(oid) FROM pg_class WHERE relname IN " +
+                    "('bench_posts_pkey', 'bench_comments_pkey', 'idx_bench_comments_post') ORDER BY relname")) {
+                while (sizes.next()) {
+                    System.out.printf("%n%s index size (%s): %d kB%n", sizes.getString(1), version,
+                                      sizes.getLong(2) / 1024);
+                }
+            }
+        }
+        connection.close();
+    }
+
+    private UUID nextId() {
+        return version.equals("v7") ? UuidV7Generator.generate() : UUID.randomUUID();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2 * BATCH_SIZE)
+    public void insertBatch() throws SQLException {
+        Timestamp now = Timestamp.from(Instant.now());
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            postIds[i] = nextId();
+            insertPost.setObject(1, postIds[i]);
+            insertPost.setString(2, "Post " + i);
+            insertPost.setTimestamp(3, now);
+            insertPost.addBatch();
+        }
+        insertPost.executeBatch();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            insertComment.setObject(1, nextId());
+            insertComment.setObject(2, postIds[ThreadLocalRandom.current()
+                                                                .nextInt(BATCH_SIZE)]);
+            insertComment.setString(3, "Comment " + i);
+            insertComment.setTimestamp(4, now);
+            insertComment.addBatch();
+        }
+        insertComment.executeBatch();
+        connection.commit();
+    }
+}
@@ -0,0 +1,56 @@
+package com.openclassrooms.mddapi.cache;
+
+import com.openclassrooms.mddapi.repository.PostRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("NotFannedOutTopics")
+class NotFannedOutTopicsTest {
+    @Mock
+    private PostRepository postRepository;
+
+    @Test
+    @DisplayName("Should load the topics once until the TTL expires")
+    void shouldReuseLoadedTopics_untilExpired() throws Exception {
+        UUID topicId = UUID.randomUUID();
+        when(postRepository.findNotFannedOutTopicIds()).thenReturn(List.of(topicId));
+        NotFannedOutTopics cached = new NotFannedOutTopics(postRepository, Duration.ofMinutes(1));
+        NotFannedOutTopics expiring = new NotFannedOutTopics(postRepository, Duration.ofMillis(1));
+
+        assertEquals(Set.of(topicId), cached.get());
+        assertEquals(Set.of(topicId), cached.get());
+        verify(postRepository, times(1)).findNotFannedOutTopicIds();
+
+        expiring.get();
+        Thread.sleep(5);
+        expiring.get();
+        verify(postRepository, times(3)).findNotFannedOutTopicIds();
+    }
+
+    @Test
+    @DisplayName("Should keep topics added by this instance across reloads that do not see them yet")
+    void shouldKeepAddedTopics_acrossReloads() throws Exception {
+        UUID loaded = UUID.randomUUID();
+        UUID added = UUID.randomUUID();
+        when(postRepository.findNotFannedOutTopicIds()).thenReturn(List.of(loaded));
+        NotFannedOutTopics topics = new NotFannedOutTopics(postRepository, Duration.ofMillis(1));
+
+        topics.addAll(List.of(added));
+        assertEquals(Set.of(loaded, added), topics.get());
+        Thread.sleep(5);
+
+        assertEquals(Set.of(loaded, added), topics.get());
+    }
+}
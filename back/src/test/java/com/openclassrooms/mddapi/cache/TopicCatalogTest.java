@@ -0,0 +1,96 @@
+package com.openclassrooms.mddapi.cache;
+
+import com.openclassrooms.mddapi.dto.topic.response.TopicResponse;
+import com.openclassrooms.mddapi.entity.Topic;
+import com.openclassrooms.mddapi.mapper.TopicMapper;
+import com.openclassrooms.mddapi.repository.TopicRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TopicCatalog")
+class TopicCatalogTest {
+    @Mock
+    private TopicRepository topicRepository;
+
+    @Mock
+    private TopicMapper topicMapper;
+
+    private TopicCatalog topicCatalog;
+
+    @BeforeEach
+    void setUp() {
+        topicCatalog = new TopicCatalog(topicRepository, topicMapper, Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Should load the catalogue once until a topic is written")
+    void shouldReuseSnapshot_untilInvalidated() {
+        List<Topic> topics = List.of(Topic.builder()
+                                          .id(UUID.randomUUID())
+                                          .build());
+        when(topicRepository.findAll()).thenReturn(topics);
+        when(topicMapper.toResponseList(topics)).thenReturn(List.of(TopicResponse.builder()
+                                                                                 .id(topics.get(0).getId())
+                                                                                 .build()));
+
+        TopicCatalog.Snapshot first = topicCatalog.snapshot();
+        assertSame(first, topicCatalog.snapshot());
+
+        topicCatalog.invalidate();
+        TopicCatalog.Snapshot second = topicCatalog.snapshot();
+
+        assertNotSame(first, second);
+        assertTrue(second.version() > first.version());
+        verify(topicRepository, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("Should reload the catalogue once the snapshot has expired")
+    void shouldReloadSnapshot_whenExpired() {
+        TopicCatalog expiringCatalog = new TopicCatalog(topicRepository, topicMapper, Duration.ZERO);
+        when(topicRepository.findAll()).thenReturn(List.of());
+        when(topicMapper.toResponseList(List.of())).thenReturn(List.of());
+
+        TopicCatalog.Snapshot first = expiringCatalog.snapshot();
+
+        assertNotSame(first, expiringCatalog.snapshot());
+        verify(topicRepository, times(2)).findAll();
+    }
+
+    @Test
+    @DisplayName("Should flag subscribed topics and ignore unknown ids")
+    void shouldOverlaySubscriptions() {
+        TopicResponse tech = TopicResponse.builder()
+                                          .id(UUID.randomUUID())
+                                          .title("Tech")
+                                          .build();
+        TopicResponse science = TopicResponse.builder()
+                                             .id(UUID.randomUUID())
+                                             .title("Science")
+                                             .build();
+        TopicCatalog.Snapshot snapshot = new TopicCatalog.Snapshot(1, List.of(tech, science));
+
+        BitSet subscribed = snapshot.toBitSet(Set.of(science.getId(), UUID.randomUUID()));
+        List<TopicResponse> responses = snapshot.toResponses(subscribed);
+
+        assertEquals(1, subscribed.cardinality());
+        assertFalse(responses.get(0).isSubscribed());
+        assertTrue(responses.get(1).isSubscribed());
+        assertEquals("Science", responses.get(1).getTitle());
+        assertFalse(science.isSubscribed());
+    }
+}
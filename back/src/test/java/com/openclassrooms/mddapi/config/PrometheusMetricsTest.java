@@ -0,0 +1,101 @@
+package com.openclassrooms.mddapi.config;
+
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.security.JwtUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"management.endpoints.web.exposure.include=health,prometheus", "management.server.port=0"})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@DisplayName("Prometheus metrics")
+public class PrometheusMetricsTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should expose request, service, feed, JWT, cache and pool metrics on the management port without authentication")
+    public void shouldExposeHotPathMetrics() throws Exception {
+        userRepository.save(User.builder()
+                                .username("alice")
+                                .email("alice@test.com")
+                                .password("irrelevant")
+                                .build());
+        String token = jwtUtils.generateToken("alice");
+
+        mockMvc.perform(get("/api/posts/feed").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+               .andExpect(status().isOk());
+        mockMvc.perform(get("/api/topics").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+               .andExpect(status().isOk());
+
+        ResponseEntity<String> scrape = restTemplate.getForEntity(managementUrl("/actuator/prometheus"), String.class);
+
+        assertEquals(HttpStatus.OK, scrape.getStatusCode());
+        assertThat(scrape.getBody(), allOf(
+                       containsString("http_server_requests_seconds_count{"),
+                       containsString("uri=\"/api/posts/feed\""),
+                       containsString("method_observed_seconds_count{"),
+                       containsString("method=\"getFeed\""),
+                       containsString("feed_page_size_count{"),
+                       containsString("auth_jwt_verify_seconds_count{"),
+                       containsString("cache=\"verified-tokens\""),
+                       containsString("cache=\"principals\""),
+                       containsString("cache=\"topic-catalog\""),
+                       containsString("hikaricp_connections_pending{")));
+    }
+
+    @Test
+    @DisplayName("Should serve management endpoints on the management port only")
+    public void shouldNotExposeManagementEndpoints_onApiPort() {
+        assertTrue(restTemplate.getForEntity("/actuator/prometheus", String.class)
+                               .getStatusCode()
+                               .is4xxClientError());
+        assertTrue(restTemplate.getForEntity("/actuator/health", String.class)
+                               .getStatusCode()
+                               .is4xxClientError());
+        assertEquals(HttpStatus.OK, restTemplate.getForEntity(managementUrl("/actuator/health"), String.class)
+                                                .getStatusCode());
+    }
+
+    private String managementUrl(String path) {
+        return "http://localhost:" + managementPort + path;
+    }
+}
@@ -0,0 +1,87 @@
+package com.openclassrooms.mddapi.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ReplicaFallbackDataSource")
+class ReplicaFallbackDataSourceTest {
+    private static final String LAG_QUERY = "select lag";
+
+    private final DataSource replica = mock(DataSource.class);
+    private final DataSource primary = mock(DataSource.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final Connection lagCheckConnection = mock(Connection.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final ResultSet lag = mock(ResultSet.class);
+
+    private boolean replicaRequested = true;
+
+    private final ReplicaFallbackDataSource dataSource = new ReplicaFallbackDataSource(replica, primary,
+            () -> replicaRequested, LAG_QUERY, Duration.ofSeconds(1), Duration.ZERO);
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Statement statement = mock(Statement.class);
+        when(lagCheckConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(LAG_QUERY)).thenReturn(lag);
+        when(lag.next()).thenReturn(true);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+    }
+
+    @Test
+    @DisplayName("Should use the replica when its lag is within bounds")
+    void shouldUseReplica_whenLagWithinBounds() throws SQLException {
+        when(replica.getConnection()).thenReturn(lagCheckConnection, replicaConnection);
+        when(lag.getDouble(1)).thenReturn(0.2);
+
+        assertSame(replicaConnection, dataSource.getConnection());
+    }
+
+    @Test
+    @DisplayName("Should use the primary when the replica was not requested")
+    void shouldUsePrimary_whenReplicaNotRequested() throws SQLException {
+        replicaRequested = false;
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the replica lags")
+    void shouldUsePrimary_whenReplicaLags() throws SQLException {
+        when(replica.getConnection()).thenReturn(lagCheckConnection);
+        when(lag.getDouble(1)).thenReturn(30.0);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the replica cannot be reached")
+    void shouldUsePrimary_whenReplicaUnreachable() throws SQLException {
+        when(replica.getConnection()).thenReturn(lagCheckConnection)
+                                     .thenThrow(new SQLException("Connection refused"));
+        when(lag.getDouble(1)).thenReturn(0.0);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the lag check fails")
+    void shouldUsePrimary_whenLagCheckFails() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+}
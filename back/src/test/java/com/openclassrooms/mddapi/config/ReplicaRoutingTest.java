@@ -0,0 +1,77 @@
+package com.openclassrooms.mddapi.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "datasource.replica.enabled=true",
+        "datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "datasource.replica.username=sa",
+        "datasource.replica.lag-query=select 0"
+})
+@Import(ReplicaRoutingTest.ReplicaReader.class)
+@DisplayName("Read replica routing")
+public class ReplicaRoutingTest {
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaReader replicaReader;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should run read-only transactions of @ReadFromReplica methods on the replica")
+    public void shouldUseReplica_whenReadFromReplicaIsRequested() {
+        assertEquals("replica", replicaReader.currentDatabase());
+    }
+
+    @Test
+    @DisplayName("Should keep other read-only transactions on the primary")
+    public void shouldUsePrimary_whenTransactionIsReadOnlyWithoutRequest() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        assertEquals("testdb", readOnly.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    @DisplayName("Should run read-write transactions on the primary")
+    public void shouldUsePrimary_whenTransactionIsReadWrite() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        assertEquals("testdb", readWrite.execute(status -> currentDatabase()));
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("select database()", String.class)
+                           .toLowerCase();
+    }
+
+    @TestComponent
+    static class ReplicaReader {
+        private final JdbcTemplate jdbcTemplate;
+
+        ReplicaReader(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @ReadFromReplica
+        @Transactional(readOnly = true)
+        public String currentDatabase() {
+            return jdbcTemplate.queryForObject("select database()", String.class)
+                               .toLowerCase();
+        }
+    }
+}
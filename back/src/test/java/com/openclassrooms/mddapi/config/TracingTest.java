@@ -0,0 +1,127 @@
+package com.openclassrooms.mddapi.config;
+
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.security.JwtUtils;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.tracing.sampling.probability=1.0")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(metrics = false)
+@DisplayName("Tracing")
+public class TracingTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll();
+        spanExporter.reset();
+    }
+
+    @Test
+    @DisplayName("Should nest filter, service, mapping and statement spans in the request's trace")
+    public void shouldNestSpansUnderRequest() throws Exception {
+        userRepository.save(User.builder()
+                                .username("tracy")
+                                .email("tracy@test.com")
+                                .password("irrelevant")
+                                .build());
+        String token = jwtUtils.generateToken("tracy");
+
+        mockMvc.perform(get("/api/posts/feed").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+               .andExpect(status().isOk());
+        tracerProvider.forceFlush()
+                      .join(5, TimeUnit.SECONDS);
+
+        List<SpanData> spans = spanExporter.getFinishedSpanItems();
+        SpanData request = find(spans, "http get /api/posts/feed");
+        SpanData verify = find(spans, "auth.jwt.verify");
+        SpanData principal = find(spans, "auth.principal.load");
+        SpanData feed = find(spans, "post-service#get-feed");
+        SpanData mapping = find(spans, "feed.mapping");
+
+        assertTrue(isUnder(spans, verify, request));
+        assertTrue(isUnder(spans, principal, request));
+        assertTrue(isUnder(spans, feed, request));
+        assertEquals(feed.getSpanId(), mapping.getParentSpanId());
+        assertTrue(hasStatementUnder(spans, principal), "user lookup statement");
+        assertTrue(hasStatementUnder(spans, feed), "feed query statement");
+    }
+
+    private static SpanData find(List<SpanData> spans, String name) {
+        return spans.stream()
+                    .filter(span -> span.getName()
+                                        .equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("No span named " + name + " in " + spans.stream()
+                                                                                                   .map(SpanData::getName)
+                                                                                                   .toList()));
+    }
+
+    private static boolean isUnder(List<SpanData> spans, SpanData span, SpanData ancestor) {
+        SpanData current = span;
+        while (current != null && current.getTraceId()
+                                         .equals(ancestor.getTraceId())) {
+            if (current.getParentSpanId()
+                       .equals(ancestor.getSpanId())) {
+                return true;
+            }
+            String parentId = current.getParentSpanId();
+            current = spans.stream()
+                           .filter(candidate -> candidate.getSpanId()
+                                                         .equals(parentId))
+                           .findFirst()
+                           .orElse(null);
+        }
+        return false;
+    }
+
+    private static boolean hasStatementUnder(List<SpanData> spans, SpanData parent) {
+        return spans.stream()
+                    .anyMatch(span -> span.getName()
+                                          .equals("db.statement") && span.getParentSpanId()
+                                                                         .equals(parent.getSpanId()));
+    }
+
+    @TestConfiguration
+    static class InMemoryExporterConfig {
+        @Bean
+        public InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+}
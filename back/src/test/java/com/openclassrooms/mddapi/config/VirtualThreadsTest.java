@@ -0,0 +1,49 @@
+package com.openclassrooms.mddapi.config;
+
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true")
+@DisplayName("Virtual threads")
+public class VirtualThreadsTest {
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Test
+    @DisplayName("Should handle requests on virtual threads when enabled")
+    public void shouldUseVirtualThreadsForTomcat_whenEnabled() {
+        TomcatWebServer webServer = (TomcatWebServer) context.getWebServer();
+
+        assertInstanceOf(VirtualThreadExecutor.class, webServer.getTomcat()
+                                                                .getConnector()
+                                                                .getProtocolHandler()
+                                                                .getExecutor());
+    }
+
+    @Test
+    @DisplayName("Should run @Async work on virtual threads when enabled")
+    public void shouldUseVirtualThreadsForAsync_whenEnabled() throws Exception {
+        boolean virtual = applicationTaskExecutor.submit(() -> Thread.currentThread()
+                                                                     .isVirtual())
+                                                 .get(5, TimeUnit.SECONDS);
+
+        assertTrue(virtual);
+    }
+}
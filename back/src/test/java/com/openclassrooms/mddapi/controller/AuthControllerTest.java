@@ -5,6 +5,7 @@ import com.openclassrooms.mddapi.dto.auth.request.LoginRequest;
 import com.openclassrooms.mddapi.dto.auth.request.RegisterRequest;
 import com.openclassrooms.mddapi.entity.User;
 import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.security.PasswordHasher;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,9 +14,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.sql.Timestamp;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -40,6 +51,12 @@ public class AuthControllerTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private PasswordHasher passwordHasher;
+
     @BeforeEach
     public void setUp() {
         userRepository.deleteAll();
@@ -164,6 +181,93 @@ public class AuthControllerTest {
                .andExpect(jsonPath("$.token").isNotEmpty());
     }
 
+    @Test
+    @DisplayName("Should re-hash a legacy password When logging in with valid credentials")
+    public void shouldRehashPassword_whenLoggingInWithALegacyHash() throws Exception {
+        User user = createValidUser();
+        user.setPassword(new BCryptPasswordEncoder(4).encode(validPassword));
+        userRepository.save(user);
+
+        LoginRequest request = LoginRequest.builder()
+                                           .login(validUsername)
+                                           .password(validPassword)
+                                           .build();
+
+        mockMvc.perform(post("/api/auth/login")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(request))
+               )
+               .andExpect(status().isOk());
+
+        String storedPassword = userRepository.findByUsername(validUsername)
+                                              .orElseThrow()
+                                              .getPassword();
+        assertTrue(storedPassword.startsWith("{bcrypt}"));
+        assertTrue(passwordEncoder.matches(validPassword, storedPassword));
+        assertFalse(passwordEncoder.upgradeEncoding(storedPassword));
+    }
+
+    @Test
+    @DisplayName("Should re-hash a password When its BCrypt cost differs from the configured strength")
+    public void shouldRehashPassword_whenBCryptCostDiffers() throws Exception {
+        User user = createValidUser();
+        user.setPassword("{bcrypt}" + new BCryptPasswordEncoder(5).encode(validPassword));
+        userRepository.save(user);
+
+        LoginRequest request = LoginRequest.builder()
+                                           .login(validUsername)
+                                           .password(validPassword)
+                                           .build();
+
+        mockMvc.perform(post("/api/auth/login")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(request))
+               )
+               .andExpect(status().isOk());
+
+        String storedPassword = userRepository.findByUsername(validUsername)
+                                              .orElseThrow()
+                                              .getPassword();
+        assertTrue(storedPassword.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(passwordEncoder.matches(validPassword, storedPassword));
+    }
+
+    @Test
+    @DisplayName("Should keep a profile change committed between loading the user and re-hashing the password")
+    public void shouldKeepConcurrentProfileChange_whenRehashingPassword() throws Exception {
+        User user = createValidUser();
+        user.setPassword(new BCryptPasswordEncoder(4).encode(validPassword));
+        userRepository.save(user);
+        Timestamp updatedAt = jdbcTemplate.queryForObject("select updated_at from users where id = ?", Timestamp.class,
+                                                          user.getId());
+
+        // The new hash is computed after the user was loaded by the login and before it is written.
+        doAnswer(invocation -> {
+            jdbcTemplate.update("update users set email = ? where id = ?", "changed@domain.ext", user.getId());
+            return invocation.callRealMethod();
+        }).when(passwordHasher)
+          .encode(validPassword);
+
+        LoginRequest request = LoginRequest.builder()
+                                           .login(validUsername)
+                                           .password(validPassword)
+                                           .build();
+
+        mockMvc.perform(post("/api/auth/login")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(request))
+               )
+               .andExpect(status().isOk());
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("select email, password, updated_at from users where id = ?",
+                                                           user.getId());
+        assertEquals("changed@domain.ext", row.get("email"));
+        assertTrue(passwordEncoder.matches(validPassword, (String) row.get("password")));
+        assertFalse(passwordEncoder.upgradeEncoding((String) row.get("password")));
+        // Only the password column was written: a merge of the loaded user would have stamped updated_at too.
+        assertEquals(updatedAt, row.get("updated_at"));
+    }
+
     @Test
     @DisplayName("Should return 401 When logging in with invalid password")
     public void shouldReturn401_whenLoggingInWithInvalidPassword() throws Exception {
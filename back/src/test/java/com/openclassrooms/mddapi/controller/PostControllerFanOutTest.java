@@ -0,0 +1,190 @@
+package com.openclassrooms.mddapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.mddapi.dto.post.request.PostRequest;
+import com.openclassrooms.mddapi.entity.Topic;
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.repository.CommentRepository;
+import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.TimelineEntryRepository;
+import com.openclassrooms.mddapi.repository.TopicRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "feed.fan-out.enabled=true",
+        "feed.fan-out.max-subscribers=2",
+        "feed.timeline.max-length=2"
+})
+@AutoConfigureMockMvc
+@DisplayName("PostController with fan-out-on-write feed")
+public class PostControllerFanOutTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private TopicRepository topicRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private TimelineEntryRepository timelineEntryRepository;
+
+    @BeforeEach
+    public void setUp() {
+        cleanUp();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cleanUp();
+    }
+
+    private void cleanUp() {
+        timelineEntryRepository.deleteAll();
+        commentRepository.deleteAll();
+        postRepository.deleteAll();
+        userRepository.deleteAll();
+        topicRepository.deleteAll();
+    }
+
+    private User createUser(String username, Topic... subscriptions) {
+        return userRepository.save(User.builder()
+                                       .username(username)
+                                       .email(username + "@email.com")
+                                       .password("S7trongP@ssw0rd!")
+                                       .subscriptions(Set.of(subscriptions))
+                                       .build());
+    }
+
+    private Topic createTopic(String title) {
+        return topicRepository.save(Topic.builder()
+                                         .title(title)
+                                         .description(title + " description")
+                                         .build());
+    }
+
+    private void publish(Topic topic, String title) throws Exception {
+        PostRequest request = PostRequest.builder()
+                                         .title(title)
+                                         .content("Content")
+                                         .topicId(topic.getId())
+                                         .build();
+        mockMvc.perform(post("/api/posts")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(request)))
+               .andExpect(status().isCreated());
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should merge timeline posts with posts of topics above the subscriber threshold")
+    public void shouldMergeTimelineWithHotTopicPosts() throws Exception {
+        Topic cold = createTopic("Cold");
+        Topic hot = createTopic("Hot");
+        createUser("alice", cold, hot);
+        createUser("bob", hot);
+        createUser("carol", hot);
+
+        publish(cold, "Fanned out");
+        publish(hot, "Read on demand");
+
+        assertEquals(1, timelineEntryRepository.count());
+
+        mockMvc.perform(get("/api/posts/feed")
+                       .contentType(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items", hasSize(2)))
+               .andExpect(jsonPath("$.items[0].title").value("Read on demand"))
+               .andExpect(jsonPath("$.items[1].title").value("Fanned out"));
+    }
+
+    @Test
+    @WithMockUser(username = "bob")
+    @DisplayName("Should backfill the timeline when subscribing to a topic")
+    public void shouldBackfillTimeline_whenSubscribing() throws Exception {
+        Topic cold = createTopic("Cold");
+        createUser("alice", cold);
+        createUser("bob");
+
+        publish(cold, "Before subscription");
+
+        mockMvc.perform(post("/api/topics/" + cold.getId() + "/subscribe"))
+               .andExpect(status().isNoContent());
+
+        assertEquals(2, timelineEntryRepository.count());
+        mockMvc.perform(get("/api/posts/feed")
+                       .contentType(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items", hasSize(1)))
+               .andExpect(jsonPath("$.items[0].title").value("Before subscription"));
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should keep paging into posts trimmed from the timeline")
+    public void shouldPagePastTrimmedTimeline() throws Exception {
+        Topic cold = createTopic("Cold");
+        createUser("alice", cold);
+
+        publish(cold, "Oldest");
+        publish(cold, "Middle");
+        publish(cold, "Newest");
+
+        await().atMost(Duration.ofSeconds(5))
+               .until(() -> timelineEntryRepository.count() == 2);
+
+        String body = mockMvc.perform(get("/api/posts/feed")
+                                     .param("limit", "2")
+                                     .contentType(MediaType.APPLICATION_JSON))
+                             .andExpect(status().isOk())
+                             .andExpect(jsonPath("$.items[*].title").value(contains("Newest", "Middle")))
+                             .andReturn()
+                             .getResponse()
+                             .getContentAsString();
+        String cursor = objectMapper.readTree(body)
+                                    .get("nextCursor")
+                                    .asText();
+
+        mockMvc.perform(get("/api/posts/feed")
+                       .param("limit", "2")
+                       .param("cursor", cursor)
+                       .contentType(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items[*].title").value(contains("Oldest")))
+               .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+}
@@ -1,11 +1,15 @@
 package com.openclassrooms.mddapi.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.mddapi.dto.comment.request.CommentBatchRequest;
 import com.openclassrooms.mddapi.dto.comment.request.CommentRequest;
+import com.openclassrooms.mddapi.dto.post.request.PostBatchRequest;
 import com.openclassrooms.mddapi.dto.post.request.PostRequest;
+import com.openclassrooms.mddapi.entity.Comment;
 import com.openclassrooms.mddapi.entity.Post;
 import com.openclassrooms.mddapi.entity.Topic;
 import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.mapper.PostMapper;
 import com.openclassrooms.mddapi.repository.CommentRepository;
 import com.openclassrooms.mddapi.repository.PostRepository;
 import com.openclassrooms.mddapi.repository.TopicRepository;
@@ -17,17 +21,28 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -54,6 +69,9 @@ public class PostControllerTest {
     @Autowired
     private CommentRepository commentRepository;
 
+    @MockitoSpyBean
+    private PostMapper postMapper;
+
     @BeforeEach
     public void setUp() {
         commentRepository.deleteAll();
@@ -104,6 +122,24 @@ public class PostControllerTest {
                                        .build());
     }
 
+    private Comment createComment(User author, Post post, String content) {
+        return commentRepository.save(Comment.builder()
+                                             .content(content)
+                                             .author(author)
+                                             .post(post)
+                                             .build());
+    }
+
+    // Through the API, which raises the content version the listing and feed ETags are hashed from.
+    private void addComment(Post post, String content) throws Exception {
+        mockMvc.perform(post("/api/posts/" + post.getId() + "/comments")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(CommentRequest.builder()
+                                                                              .content(content)
+                                                                              .build())))
+               .andExpect(status().isCreated());
+    }
+
     @Test
     @WithMockUser(username = "alice")
     @DisplayName("Should list posts when authenticated")
@@ -119,7 +155,60 @@ public class PostControllerTest {
                .andExpect(jsonPath("$[0].title").value("First post"))
                .andExpect(jsonPath("$[0].content").value("Content"))
                .andExpect(jsonPath("$[0].author").value("alice"))
-               .andExpect(jsonPath("$[0].topic").value("Tech"));
+               .andExpect(jsonPath("$[0].topic").value("Tech"))
+               .andExpect(jsonPath("$[0].commentCount").value(0))
+               .andExpect(jsonPath("$[0].comments").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should stream posts as newline-delimited JSON when requested")
+    public void shouldStreamPosts_whenNdjsonIsAccepted() throws Exception {
+        User author = createUser("alice");
+        Topic topic = createTopic("Tech");
+        createPost(author, topic, "Older post", "Content", LocalDateTime.now()
+                                                                         .minusDays(1));
+        createPost(author, topic, "Newer post", "Content", LocalDateTime.now());
+
+        MvcResult result = mockMvc.perform(get("/api/posts")
+                                          .accept(MediaType.APPLICATION_NDJSON))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                                .andExpect(header().exists(HttpHeaders.ETAG))
+                                .andReturn()
+                                .getResponse()
+                                .getContentAsString()
+                                .split("\n");
+
+        assertEquals(2, lines.length);
+        assertEquals("Newer post", objectMapper.readTree(lines[0])
+                                                .get("title")
+                                                .asText());
+        assertEquals("Older post", objectMapper.readTree(lines[1])
+                                                .get("title")
+                                                .asText());
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should list post summaries with comment count and truncated content")
+    public void shouldListPostSummaries_withCommentCountAndTruncatedContent() throws Exception {
+        User author = createUser("alice");
+        Topic topic = createTopic("Tech");
+        Post post = createPost(author, topic, "Long post", "a".repeat(1000));
+        createComment(author, post, "First");
+        createComment(author, post, "Second");
+
+        mockMvc.perform(get("/api/posts")
+                       .contentType(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$", hasSize(1)))
+               .andExpect(jsonPath("$[0].commentCount").value(2))
+               .andExpect(jsonPath("$[0].content").value("a".repeat(300)));
     }
 
     @Test
@@ -163,6 +252,63 @@ public class PostControllerTest {
                .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should create a batch of posts in request order")
+    public void shouldCreatePostBatch_whenRequestIsValid() throws Exception {
+        createUser("alice");
+        Topic java = createTopic("Java");
+        Topic science = createTopic("Science");
+
+        PostBatchRequest request = PostBatchRequest.builder()
+                                                   .posts(List.of(
+                                                           PostRequest.builder().title("First").content("One").topicId(java.getId()).build(),
+                                                           PostRequest.builder().title("Second").content("Two").topicId(science.getId()).build(),
+                                                           PostRequest.builder().title("Third").content("Three").topicId(java.getId()).build()))
+                                                   .build();
+
+        mockMvc.perform(post("/api/posts/batch")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(request)))
+               .andExpect(status().isCreated())
+               .andExpect(jsonPath("$", hasSize(3)))
+               .andExpect(jsonPath("$[0].title").value("First"))
+               .andExpect(jsonPath("$[1].topic").value("Science"))
+               .andExpect(jsonPath("$[2].author").value("alice"));
+
+        assertEquals(3, postRepository.count());
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should create no post when one item of the batch is invalid")
+    public void shouldReturn400_whenPostBatchContainsInvalidItem() throws Exception {
+        createUser("alice");
+        Topic topic = createTopic("Java");
+
+        PostBatchRequest request = PostBatchRequest.builder()
+                                                   .posts(List.of(
+                                                           PostRequest.builder().title("Valid").content("Content").topicId(topic.getId()).build(),
+                                                           PostRequest.builder().title("").content("Content").topicId(topic.getId()).build()))
+                                                   .build();
+
+        mockMvc.perform(post("/api/posts/batch")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(request)))
+               .andExpect(status().isBadRequest());
+
+        assertEquals(0, postRepository.count());
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should return 400 when search query is missing")
+    public void shouldReturn400_whenSearchQueryMissing() throws Exception {
+        mockMvc.perform(get("/api/posts/search")
+                       .contentType(MediaType.APPLICATION_JSON))
+               .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(username = "alice")
     @DisplayName("Should retrieve a post by id")
@@ -181,6 +327,75 @@ public class PostControllerTest {
                .andExpect(jsonPath("$.topic").value("Math"));
     }
 
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should retrieve a post with its first comments page")
+    public void shouldRetrievePostWithFirstCommentsPage() throws Exception {
+        User author = createUser("alice");
+        Topic topic = createTopic("Math");
+        Post post = createPost(author, topic, "Algebra", "Algebra content");
+        Comment older = createComment(author, post, "Older");
+        Comment newer = createComment(author, post, "Newer");
+
+        mockMvc.perform(get("/api/posts/" + post.getId())
+                       .contentType(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.comments", hasSize(2)))
+               .andExpect(jsonPath("$.comments[0].id").value(newer.getId()
+                                                                  .toString()))
+               .andExpect(jsonPath("$.comments[1].id").value(older.getId()
+                                                                  .toString()))
+               .andExpect(jsonPath("$.comments[0].author").value("alice"))
+               .andExpect(jsonPath("$.commentsNextCursor").value(nullValue()));
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should paginate the comments of a post with the returned cursor")
+    public void shouldPaginateComments_withCursor() throws Exception {
+        User author = createUser("alice");
+        Topic topic = createTopic("Math");
+        Post post = createPost(author, topic, "Algebra", "Algebra content");
+        Comment oldest = createComment(author, post, "Oldest");
+        Comment middle = createComment(author, post, "Middle");
+        Comment newest = createComment(author, post, "Newest");
+
+        String body = mockMvc.perform(get("/api/posts/" + post.getId() + "/comments")
+                                     .param("limit", "2")
+                                     .contentType(MediaType.APPLICATION_JSON))
+                             .andExpect(status().isOk())
+                             .andExpect(jsonPath("$.items", hasSize(2)))
+                             .andExpect(jsonPath("$.items[0].id").value(newest.getId()
+                                                                              .toString()))
+                             .andExpect(jsonPath("$.items[1].id").value(middle.getId()
+                                                                              .toString()))
+                             .andReturn()
+                             .getResponse()
+                             .getContentAsString();
+        String nextCursor = objectMapper.readTree(body)
+                                        .get("nextCursor")
+                                        .asText();
+
+        mockMvc.perform(get("/api/posts/" + post.getId() + "/comments")
+                       .param("limit", "2")
+                       .param("cursor", nextCursor)
+                       .contentType(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items", hasSize(1)))
+               .andExpect(jsonPath("$.items[0].id").value(oldest.getId()
+                                                                .toString()))
+               .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should return 404 when listing comments of an unknown post")
+    public void shouldReturn404_whenListingCommentsOfUnknownPost() throws Exception {
+        mockMvc.perform(get("/api/posts/" + UUID.randomUUID() + "/comments")
+                       .contentType(MediaType.APPLICATION_JSON))
+               .andExpect(status().isNotFound());
+    }
+
     @Test
     @WithMockUser(username = "alice")
     @DisplayName("Should return 404 when retrieving an unknown post")
@@ -214,6 +429,31 @@ public class PostControllerTest {
         org.junit.jupiter.api.Assertions.assertEquals(1, commentRepository.count());
     }
 
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should add a batch of comments to an existing post")
+    public void shouldAddCommentBatch_whenPostExists() throws Exception {
+        User author = createUser("alice");
+        Topic topic = createTopic("History");
+        Post post = createPost(author, topic, "Ancient Rome", "History content");
+
+        CommentBatchRequest request = CommentBatchRequest.builder()
+                                                         .comments(List.of(
+                                                                 CommentRequest.builder().content("First").build(),
+                                                                 CommentRequest.builder().content("Second").build()))
+                                                         .build();
+
+        mockMvc.perform(post("/api/posts/" + post.getId() + "/comments/batch")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(request)))
+               .andExpect(status().isCreated())
+               .andExpect(jsonPath("$", hasSize(2)))
+               .andExpect(jsonPath("$[0].content").value("First"))
+               .andExpect(jsonPath("$[1].author").value("alice"));
+
+        assertEquals(2, commentRepository.count());
+    }
+
     @Test
     @WithMockUser(username = "alice")
     @DisplayName("Should return 404 when adding a comment to a missing post")
@@ -264,12 +504,269 @@ public class PostControllerTest {
         mockMvc.perform(get("/api/posts/feed")
                        .contentType(MediaType.APPLICATION_JSON))
                .andExpect(status().isOk())
-               .andExpect(jsonPath("$", hasSize(2)))
-               .andExpect(jsonPath("$[0].id").value(latest.getId()
-                                                          .toString()))
-               .andExpect(jsonPath("$[1].id").value(older.getId()
-                                                         .toString()))
-               .andExpect(jsonPath("$[*].id", not(hasItem(unrelated.getId()
-                                                                   .toString()))));
+               .andExpect(jsonPath("$.items", hasSize(2)))
+               .andExpect(jsonPath("$.items[0].id").value(latest.getId()
+                                                                .toString()))
+               .andExpect(jsonPath("$.items[1].id").value(older.getId()
+                                                               .toString()))
+               .andExpect(jsonPath("$.items[*].id", not(hasItem(unrelated.getId()
+                                                                         .toString()))))
+               .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should paginate feed with the returned cursor")
+    public void shouldPaginateFeed_withCursor() throws Exception {
+        User alice = createUser("alice");
+        Topic tech = createTopic("Tech");
+        alice.getSubscriptions()
+             .add(tech);
+        userRepository.save(alice);
+
+        Post oldest = createPost(alice, tech, "Oldest", "Content");
+        Post middle = createPost(alice, tech, "Middle", "Content");
+        Post newest = createPost(alice, tech, "Newest", "Content");
+
+        String body = mockMvc.perform(get("/api/posts/feed")
+                                     .param("limit", "2")
+                                     .contentType(MediaType.APPLICATION_JSON))
+                             .andExpect(status().isOk())
+                             .andExpect(jsonPath("$.items", hasSize(2)))
+                             .andExpect(jsonPath("$.items[0].id").value(newest.getId()
+                                                                              .toString()))
+                             .andExpect(jsonPath("$.items[1].id").value(middle.getId()
+                                                                              .toString()))
+                             .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                             .andReturn()
+                             .getResponse()
+                             .getContentAsString();
+        String nextCursor = objectMapper.readTree(body)
+                                        .get("nextCursor")
+                                        .asText();
+
+        mockMvc.perform(get("/api/posts/feed")
+                       .param("limit", "2")
+                       .param("cursor", nextCursor)
+                       .contentType(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items", hasSize(1)))
+               .andExpect(jsonPath("$.items[0].id").value(oldest.getId()
+                                                                .toString()))
+               .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should paginate feed oldest first when order is asc")
+    public void shouldPaginateFeedOldestFirst_whenOrderAsc() throws Exception {
+        User alice = createUser("alice");
+        Topic tech = createTopic("Tech");
+        alice.getSubscriptions()
+             .add(tech);
+        userRepository.save(alice);
+
+        Post oldest = createPost(alice, tech, "Oldest", "Content");
+        Post middle = createPost(alice, tech, "Middle", "Content");
+        Post newest = createPost(alice, tech, "Newest", "Content");
+
+        String body = mockMvc.perform(get("/api/posts/feed")
+                                     .param("limit", "2")
+                                     .param("order", "asc")
+                                     .contentType(MediaType.APPLICATION_JSON))
+                             .andExpect(status().isOk())
+                             .andExpect(jsonPath("$.items", hasSize(2)))
+                             .andExpect(jsonPath("$.items[0].id").value(oldest.getId()
+                                                                              .toString()))
+                             .andExpect(jsonPath("$.items[1].id").value(middle.getId()
+                                                                              .toString()))
+                             .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                             .andReturn()
+                             .getResponse()
+                             .getContentAsString();
+        String nextCursor = objectMapper.readTree(body)
+                                        .get("nextCursor")
+                                        .asText();
+
+        mockMvc.perform(get("/api/posts/feed")
+                       .param("limit", "2")
+                       .param("order", "asc")
+                       .param("cursor", nextCursor)
+                       .contentType(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items", hasSize(1)))
+               .andExpect(jsonPath("$.items[0].id").value(newest.getId()
+                                                                .toString()))
+               .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should return 400 when feed order is unknown")
+    public void shouldReturn400_whenFeedOrderUnknown() throws Exception {
+        createUser("alice");
+
+        mockMvc.perform(get("/api/posts/feed")
+                       .param("order", "sideways")
+                       .contentType(MediaType.APPLICATION_JSON))
+               .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should return 304 when listing posts with a current ETag and 200 once a comment is added")
+    public void shouldReturn304_whenListingPostsWithCurrentETag() throws Exception {
+        User author = createUser("alice");
+        Topic topic = createTopic("Tech");
+        Post post = createPost(author, topic, "First post", "Content");
+
+        String eTag = mockMvc.perform(get("/api/posts"))
+                             .andExpect(status().isOk())
+                             .andExpect(header().exists(HttpHeaders.ETAG))
+                             .andReturn()
+                             .getResponse()
+                             .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/posts").header(HttpHeaders.IF_NONE_MATCH, eTag))
+               .andExpect(status().isNotModified())
+               .andExpect(content().string(""));
+
+        addComment(post, "New comment");
+
+        mockMvc.perform(get("/api/posts").header(HttpHeaders.IF_NONE_MATCH, eTag))
+               .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+               .andExpect(jsonPath("$[0].commentCount").value(1));
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should change the post list ETag when a comment moves from one post to another")
+    public void shouldChangeListETag_whenCommentCountsChangeButTotalDoesNot() throws Exception {
+        User author = createUser("alice");
+        Topic topic = createTopic("Tech");
+        Post first = createPost(author, topic, "First post", "Content");
+        Post second = createPost(author, topic, "Second post", "Content");
+        Comment comment = createComment(author, first, "Comment");
+
+        String eTag = mockMvc.perform(get("/api/posts"))
+                             .andExpect(status().isOk())
+                             .andReturn()
+                             .getResponse()
+                             .getHeader(HttpHeaders.ETAG);
+
+        commentRepository.delete(comment);
+        addComment(second, "Comment");
+
+        mockMvc.perform(get("/api/posts").header(HttpHeaders.IF_NONE_MATCH, eTag))
+               .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should return 304 when retrieving a post with a current ETag")
+    public void shouldReturn304_whenRetrievingPostWithCurrentETag() throws Exception {
+        User author = createUser("alice");
+        Topic topic = createTopic("Math");
+        Post post = createPost(author, topic, "Algebra", "Algebra content");
+
+        String eTag = mockMvc.perform(get("/api/posts/" + post.getId()))
+                             .andExpect(status().isOk())
+                             .andReturn()
+                             .getResponse()
+                             .getHeader(HttpHeaders.ETAG);
+
+        clearInvocations(postMapper);
+
+        mockMvc.perform(get("/api/posts/" + post.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+               .andExpect(status().isNotModified());
+
+        verifyNoInteractions(postMapper);
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should change the feed ETag when the user subscribes to another topic")
+    public void shouldChangeFeedETag_whenSubscriptionsChange() throws Exception {
+        User alice = createUser("alice");
+        Topic tech = createTopic("Tech");
+        Topic science = createTopic("Science");
+        alice.getSubscriptions()
+             .add(tech);
+        userRepository.save(alice);
+        createPost(alice, science, "Physics", "Physics content");
+
+        String eTag = mockMvc.perform(get("/api/posts/feed"))
+                             .andExpect(status().isOk())
+                             .andReturn()
+                             .getResponse()
+                             .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/posts/feed").header(HttpHeaders.IF_NONE_MATCH, eTag))
+               .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/api/topics/" + science.getId() + "/subscribe"))
+               .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/posts/feed").header(HttpHeaders.IF_NONE_MATCH, eTag))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items[0].title").value("Physics"));
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should change the post ETag when a comment is added and not when another post changes")
+    public void shouldChangePostETag_onlyWhenRenderedRowsChange() throws Exception {
+        User author = createUser("alice");
+        Topic topic = createTopic("Math");
+        Post post = createPost(author, topic, "Algebra", "Algebra content");
+
+        String eTag = mockMvc.perform(get("/api/posts/" + post.getId()))
+                             .andExpect(status().isOk())
+                             .andReturn()
+                             .getResponse()
+                             .getHeader(HttpHeaders.ETAG);
+
+        createPost(author, topic, "Geometry", "Geometry content");
+
+        mockMvc.perform(get("/api/posts/" + post.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+               .andExpect(status().isNotModified());
+
+        createComment(author, post, "New comment");
+
+        mockMvc.perform(get("/api/posts/" + post.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.comments[0].content").value("New comment"));
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should return 304 on a current feed page without reading it, and 200 once one of its posts is commented")
+    public void shouldReturn304_whenFeedPageIsCurrent() throws Exception {
+        User alice = createUser("alice");
+        Topic tech = createTopic("Tech");
+        alice.getSubscriptions()
+             .add(tech);
+        userRepository.save(alice);
+        Post post = createPost(alice, tech, "Java", "Java content");
+
+        String eTag = mockMvc.perform(get("/api/posts/feed"))
+                             .andExpect(status().isOk())
+                             .andReturn()
+                             .getResponse()
+                             .getHeader(HttpHeaders.ETAG);
+        clearInvocations(postMapper);
+
+        mockMvc.perform(get("/api/posts/feed").header(HttpHeaders.IF_NONE_MATCH, eTag))
+               .andExpect(status().isNotModified());
+
+        verifyNoInteractions(postMapper);
+
+        addComment(post, "New comment");
+
+        mockMvc.perform(get("/api/posts/feed").header(HttpHeaders.IF_NONE_MATCH, eTag))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items[0].commentCount").value(1));
     }
 }
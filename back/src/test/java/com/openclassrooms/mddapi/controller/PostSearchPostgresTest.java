@@ -0,0 +1,126 @@
+package com.openclassrooms.mddapi.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.mddapi.entity.Post;
+import com.openclassrooms.mddapi.entity.Topic;
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.postgres.EmbeddedPostgresDatabase;
+import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.TopicRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The search query is native PostgreSQL (tsvector, websearch_to_tsquery, ts_rank) and its column is created by the
+ * PostgreSQL vendor migration, so it runs against an embedded PostgreSQL instead of H2.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@DisplayName("Post search on PostgreSQL")
+public class PostSearchPostgresTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private TopicRepository topicRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresDatabase.register(registry, "search");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        postRepository.deleteAll();
+        userRepository.deleteAll();
+        topicRepository.deleteAll();
+    }
+
+    private Post createPost(User author, Topic topic, String title, String content) {
+        return postRepository.save(Post.builder()
+                                       .title(title)
+                                       .content(content)
+                                       .author(author)
+                                       .topic(topic)
+                                       .build());
+    }
+
+    @Test
+    @WithMockUser(username = "alice")
+    @DisplayName("Should page through every match once, best rank first and ties by id")
+    public void shouldPageThroughRankedResults_withTies() throws Exception {
+        User author = userRepository.save(User.builder()
+                                              .username("alice")
+                                              .email("alice@email.com")
+                                              .password("irrelevant")
+                                              .build());
+        Topic topic = topicRepository.save(Topic.builder()
+                                                .title("Kotlin")
+                                                .description("Kotlin description")
+                                                .build());
+        Post best = createPost(author, topic, "Kotlin coroutines", "Structured concurrency with coroutines");
+        List<UUID> ties = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ties.add(createPost(author, topic, "Post " + i, "Notes on kotlin coroutines")
+                             .getId());
+        }
+        createPost(author, topic, "Java", "Records and sealed types");
+
+        List<UUID> found = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/posts/search").param("q", "kotlin coroutines")
+                                                                            .param("limit", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                                                         .andExpect(status().isOk())
+                                                         .andReturn()
+                                                         .getResponse()
+                                                         .getContentAsString());
+            page.get("items")
+                .forEach(item -> found.add(UUID.fromString(item.get("id")
+                                                               .asText())));
+            cursor = page.get("nextCursor")
+                         .isNull() ? null : page.get("nextCursor")
+                                                .asText();
+        } while (cursor != null);
+
+        List<UUID> expected = new ArrayList<>();
+        expected.add(best.getId());
+        ties.stream()
+            .sorted(Comparator.reverseOrder())
+            .forEach(expected::add);
+        assertEquals(expected, found);
+    }
+}
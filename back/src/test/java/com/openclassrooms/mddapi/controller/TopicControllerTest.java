@@ -11,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -104,6 +105,37 @@ public class TopicControllerTest {
                )));
     }
 
+    @Test
+    @WithMockUser(username = "john")
+    @DisplayName("Should return 304 when listing topics with a current ETag")
+    public void shouldReturn304_whenListingTopicsWithCurrentETag() throws Exception {
+        Topic topic = topicRepository.save(Topic.builder()
+                                                .title("Tech")
+                                                .description("Latest tech news")
+                                                .build());
+        userRepository.save(User.builder()
+                                .username("john")
+                                .email("john@example.com")
+                                .password("password")
+                                .build());
+
+        String eTag = mockMvc.perform(get("/api/topics"))
+                             .andExpect(status().isOk())
+                             .andReturn()
+                             .getResponse()
+                             .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/topics").header(HttpHeaders.IF_NONE_MATCH, eTag))
+               .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/api/topics/" + topic.getId() + "/subscribe"))
+               .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/topics").header(HttpHeaders.IF_NONE_MATCH, eTag))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[0].subscribed").value(true));
+    }
+
     @Test
     @WithMockUser(username = "john")
     @DisplayName("Should subscribe the authenticated user to a topic")
@@ -129,7 +161,8 @@ public class TopicControllerTest {
         org.junit.jupiter.api.Assertions.assertEquals(1, updatedUser.getSubscriptions()
                                         .size());
         org.junit.jupiter.api.Assertions.assertEquals(topic.getId(), updatedUser.getSubscriptions()
-                                             .get(0)
+                                             .iterator()
+                                             .next()
                                              .getId());
     }
 
@@ -161,7 +194,8 @@ public class TopicControllerTest {
         org.junit.jupiter.api.Assertions.assertEquals(1, updatedUser.getSubscriptions()
                                                                     .size());
         org.junit.jupiter.api.Assertions.assertEquals(topic.getId(), updatedUser.getSubscriptions()
-                                                                                 .get(0)
+                                                                                 .iterator()
+                                                                                 .next()
                                                                                  .getId());
     }
 
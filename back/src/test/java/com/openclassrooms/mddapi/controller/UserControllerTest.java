@@ -121,7 +121,8 @@ public class UserControllerTest {
         mockMvc.perform(put("/api/users/me")
                        .contentType(MediaType.APPLICATION_JSON)
                        .content(objectMapper.writeValueAsString(request)))
-               .andExpect(status().isConflict());
+               .andExpect(status().isConflict())
+               .andExpect(jsonPath("$.message").value("Email already in use"));
     }
 
     @Test
@@ -140,6 +141,7 @@ public class UserControllerTest {
         mockMvc.perform(put("/api/users/me")
                        .contentType(MediaType.APPLICATION_JSON)
                        .content(objectMapper.writeValueAsString(request)))
-               .andExpect(status().isConflict());
+               .andExpect(status().isConflict())
+               .andExpect(jsonPath("$.message").value("Username already in use"));
     }
 }
@@ -0,0 +1,38 @@
+package com.openclassrooms.mddapi.entity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("UuidV7Generator")
+class UuidV7GeneratorTest {
+
+    @Test
+    @DisplayName("Should generate version 7 ids carrying the current time")
+    void shouldGenerateVersion7Ids() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7Generator.generate();
+        long after = System.currentTimeMillis();
+
+        long timestamp = id.getMostSignificantBits() >>> 16;
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        // The per-millisecond counter may borrow a few milliseconds when ids are generated in bursts.
+        assertTrue(timestamp >= before && timestamp <= after + 100);
+    }
+
+    @Test
+    @DisplayName("Should generate strictly increasing ids in unsigned byte order")
+    void shouldGenerateIncreasingIds() {
+        UUID previous = UuidV7Generator.generate();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = UuidV7Generator.generate();
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), next.getMostSignificantBits()) < 0);
+            previous = next;
+        }
+    }
+}
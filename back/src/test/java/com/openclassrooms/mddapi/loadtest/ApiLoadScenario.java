@@ -0,0 +1,254 @@
+package com.openclassrooms.mddapi.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.mddapi.dto.auth.request.LoginRequest;
+import com.openclassrooms.mddapi.dto.comment.request.CommentRequest;
+import com.openclassrooms.mddapi.postgres.EmbeddedPostgresDatabase;
+import com.openclassrooms.mddapi.repository.CommentRepository;
+import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.TopicRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.security.JwtUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seeds {@link LoadTestDataSeeder} volumes, then drives login, feed, topics and comment creation at
+ * {@code loadtest.rate} requests per second and prints p50/p99 latency and throughput per endpoint. Virtual threads
+ * pinned to their carrier for {@code loadtest.pinned-threshold} or more are recorded with JFR (see
+ * {@link PinnedThreadRecorder}) and fail the run above {@code loadtest.max-pinned} events. A third of the
+ * feed requests follow the {@code nextCursor} of an earlier feed response, so deeper pages are read too. Not part of
+ * the regular test run, see the {@code load-test} profile. Every {@code loadtest.*} value, and any application property
+ * such as {@code spring.threads.virtual.enabled}, can be overridden with {@code -D}. The database is an embedded
+ * PostgreSQL unless {@code spring.datasource.url} is given.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DisplayName("API load scenario")
+public class ApiLoadScenario {
+    private static final String PASSWORD = "S7trongP@ssw0rd!";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TopicRepository topicRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${loadtest.seed:42}")
+    private long seed;
+
+    @Value("${loadtest.users:500}")
+    private int users;
+
+    @Value("${loadtest.topics:20}")
+    private int topics;
+
+    @Value("${loadtest.subscriptions-per-user:5}")
+    private int subscriptionsPerUser;
+
+    @Value("${loadtest.posts:5000}")
+    private int posts;
+
+    @Value("${loadtest.comments-per-post:3}")
+    private int commentsPerPost;
+
+    @Value("${loadtest.history:365d}")
+    private Duration history;
+
+    @Value("${feed.fan-out.max-subscribers:10000}")
+    private long fanOutMaxSubscribers;
+
+    @Value("${feed.timeline.max-length:1000}")
+    private int timelineMaxLength;
+
+    @Value("${loadtest.rate:100}")
+    private int rate;
+
+    @Value("${loadtest.warmup:5s}")
+    private Duration warmup;
+
+    @Value("${loadtest.duration:30s}")
+    private Duration duration;
+
+    @Value("${loadtest.max-error-rate:0.01}")
+    private double maxErrorRate;
+
+    @Value("${loadtest.pinned-threshold:20ms}")
+    private Duration pinnedThreshold;
+
+    @Value("${loadtest.max-pinned:0}")
+    private long maxPinned;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        if (System.getProperty("spring.datasource.url") == null) {
+            EmbeddedPostgresDatabase.register(registry, "loadtest");
+        }
+    }
+
+    @Test
+    @DisplayName("Should sustain the target rate on login, feed, topics and comments")
+    public void shouldSustainTargetRate() throws Exception {
+        LoadTestDataSeeder.SeededData data = new LoadTestDataSeeder(userRepository, topicRepository, postRepository,
+                commentRepository, transactionTemplate, jdbcTemplate, seed)
+                .seed(new LoadTestDataSeeder.Volumes(users, topics, subscriptionsPerUser, posts, commentsPerPost),
+                      history, new LoadTestDataSeeder.FanOut(fanOutMaxSubscribers, timelineMaxLength),
+                      passwordEncoder.encode(PASSWORD));
+        List<String> tokens = data.usernames()
+                                  .stream()
+                                  .map(jwtUtils::generateToken)
+                                  .toList();
+
+        URI baseUri = URI.create("http://localhost:" + port);
+        Random random = new Random(seed);
+        BlockingQueue<HttpRequest> nextFeedPages = new ArrayBlockingQueue<>(1000);
+        BiConsumer<HttpRequest, String> followNextCursor = (request, body) -> {
+            String nextCursor = nextCursor(body);
+            if (nextCursor != null) {
+                nextFeedPages.offer(feed(baseUri, request.headers()
+                                                         .firstValue("Authorization")
+                                                         .orElseThrow(), nextCursor));
+            }
+        };
+        LoadGenerator generator = new LoadGenerator(HttpClient.newBuilder()
+                                                              .version(HttpClient.Version.HTTP_1_1)
+                                                              .build(), seed)
+                .endpoint("POST /api/auth/login", 5, () -> {
+                    LoginRequest login = new LoginRequest(data.usernames()
+                                                              .get(random.nextInt(data.usernames()
+                                                                                      .size())), PASSWORD);
+                    return json(baseUri.resolve("/api/auth/login"), null, login);
+                })
+                .endpoint("GET /api/posts/feed", 40, () -> feed(baseUri, bearer(tokens, random), null),
+                          followNextCursor)
+                .endpoint("GET /api/posts/feed?cursor", 20, () -> {
+                    HttpRequest nextPage = nextFeedPages.poll();
+                    return nextPage != null ? nextPage : feed(baseUri, bearer(tokens, random), null);
+                }, followNextCursor)
+                .endpoint("GET /api/topics", 20, () -> HttpRequest.newBuilder(baseUri.resolve("/api/topics"))
+                                                                  .header("Authorization", bearer(tokens, random))
+                                                                  .build())
+                .endpoint("POST /api/posts/{id}/comments", 15, () -> {
+                    String postId = data.postIds()
+                                        .get(random.nextInt(data.postIds()
+                                                                .size()))
+                                        .toString();
+                    return json(baseUri.resolve("/api/posts/" + postId + "/comments"), bearer(tokens, random),
+                                new CommentRequest("Load test comment"));
+                });
+
+        LoadGenerator.Report report;
+        Map<String, Long> pinned;
+        try (PinnedThreadRecorder pinnedThreads = new PinnedThreadRecorder(pinnedThreshold)) {
+            report = generator.run(rate, warmup, duration);
+            pinned = pinnedThreads.stop();
+        }
+
+        System.out.printf("%n%d users, %d topics, %d posts, %d comments per post, %d req/s for %s, virtual threads %s%n%s",
+                          users, topics, posts, commentsPerPost, rate, duration, virtualThreads ? "on" : "off", report);
+        pinned.forEach((site, count) -> System.out.printf("Pinned %d times over %s: %s%n", count, pinnedThreshold, site));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("virtualThreads", virtualThreads);
+        result.put("endpoints", report.getEndpoints());
+        result.put("pinned", pinned);
+        objectMapper.writerWithDefaultPrettyPrinter()
+                    .writeValue(Path.of("target", "load-test-report-" + (virtualThreads ? "virtual" : "platform")
+                                                  + ".json")
+                                    .toFile(), result);
+        assertTrue(report.errorRate() <= maxErrorRate, "Error rate " + report.errorRate() + " over " + maxErrorRate);
+        long pinnedEvents = pinned.values()
+                                  .stream()
+                                  .mapToLong(Long::longValue)
+                                  .sum();
+        assertTrue(pinnedEvents <= maxPinned, pinnedEvents + " pinned virtual threads over " + maxPinned);
+    }
+
+    private static HttpRequest feed(URI baseUri, String authorization, String cursor) {
+        String query = cursor == null ? "" : "?cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8);
+        return HttpRequest.newBuilder(baseUri.resolve("/api/posts/feed" + query))
+                          .header("Authorization", authorization)
+                          .build();
+    }
+
+    private String nextCursor(String body) {
+        try {
+            return objectMapper.readTree(body)
+                               .path("nextCursor")
+                               .textValue();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String bearer(List<String> tokens, Random random) {
+        return "Bearer " + tokens.get(random.nextInt(tokens.size()));
+    }
+
+    private HttpRequest json(URI uri, String authorization, Object body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                                                 .header("Content-Type", "application/json");
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        try {
+            return request.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                          .build();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
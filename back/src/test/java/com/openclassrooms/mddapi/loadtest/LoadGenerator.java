@@ -0,0 +1,206 @@
+package com.openclassrooms.mddapi.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Open-loop load generator: requests are started at a fixed rate whatever the response times, each on its own virtual
+ * thread, and latency is measured from the moment a request was due rather than when it was sent, so a slow server
+ * cannot hide its queueing delay (coordinated omission). Endpoints are picked by weight from a seeded {@link Random}.
+ * Throughput is what the server completed within the measurement window, which falls below the offered rate once
+ * requests queue up.
+ */
+public class LoadGenerator {
+    private final HttpClient httpClient;
+    private final Random random;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private int totalWeight;
+
+    public LoadGenerator(HttpClient httpClient, long seed) {
+        this.httpClient = httpClient;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @param request called on the generator thread, so it may use the same seeded {@link Random}
+     */
+    public LoadGenerator endpoint(String name, int weight, Supplier<HttpRequest> request) {
+        return endpoint(name, weight, request, null);
+    }
+
+    /**
+     * @param onSuccess called with every successful request and its response body, on the request's thread
+     */
+    public LoadGenerator endpoint(String name, int weight, Supplier<HttpRequest> request,
+                                  BiConsumer<HttpRequest, String> onSuccess) {
+        endpoints.add(new Endpoint(name, weight, request, onSuccess));
+        totalWeight += weight;
+        return this;
+    }
+
+    public Report run(int requestsPerSecond, Duration warmup, Duration duration) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long warmupNanos = warmup.toNanos();
+        long totalNanos = warmupNanos + duration.toNanos();
+
+        long start = System.nanoTime();
+        long windowStart = start + warmupNanos;
+        long windowEnd = start + totalNanos;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i * interval < totalNanos; i++) {
+                long due = start + i * interval;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+
+                Endpoint endpoint = pick();
+                HttpRequest request = endpoint.request.get();
+                boolean measured = i * interval >= warmupNanos;
+                executor.submit(() -> send(endpoint, request, due, measured, windowStart, windowEnd));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        }
+
+        return new Report(duration, endpoints);
+    }
+
+    private Endpoint pick() {
+        int r = random.nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            r -= endpoint.weight;
+            if (r < 0) {
+                return endpoint;
+            }
+        }
+        throw new IllegalStateException("No endpoint registered");
+    }
+
+    private void send(Endpoint endpoint, HttpRequest request, long due, boolean measured, long windowStart,
+                      long windowEnd) {
+        boolean success;
+        try {
+            if (endpoint.onSuccess == null) {
+                success = httpClient.send(request, HttpResponse.BodyHandlers.discarding())
+                                    .statusCode() < 400;
+            } else {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                success = response.statusCode() < 400;
+                if (success) {
+                    endpoint.onSuccess.accept(request, response.body());
+                }
+            }
+        } catch (IOException e) {
+            success = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            return;
+        }
+
+        long completed = System.nanoTime();
+        if (completed >= windowStart && completed < windowEnd) {
+            endpoint.completed.increment();
+        }
+        if (measured) {
+            endpoint.latencies.add(completed - due);
+            if (!success) {
+                endpoint.errors.increment();
+            }
+        }
+    }
+
+    private static final class Endpoint {
+        private final String name;
+        private final int weight;
+        private final Supplier<HttpRequest> request;
+        private final BiConsumer<HttpRequest, String> onSuccess;
+        private final Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+
+        private Endpoint(String name, int weight, Supplier<HttpRequest> request,
+                         BiConsumer<HttpRequest, String> onSuccess) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+            this.onSuccess = onSuccess;
+        }
+    }
+
+    /**
+     * @param requests   requests sent during the measurement window
+     * @param throughput responses received per second during the measurement window, whenever they were sent
+     */
+    public record EndpointStats(String endpoint, int requests, long errors, double throughput, double p50Millis,
+                                double p99Millis, double maxMillis) {
+    }
+
+    public static final class Report {
+        private final List<EndpointStats> endpoints;
+
+        private Report(Duration duration, List<Endpoint> endpoints) {
+            this.endpoints = endpoints.stream()
+                                      .map(endpoint -> stats(endpoint, duration))
+                                      .toList();
+        }
+
+        private static EndpointStats stats(Endpoint endpoint, Duration duration) {
+            long[] latencies = endpoint.latencies.stream()
+                                                 .mapToLong(Long::longValue)
+                                                 .sorted()
+                                                 .toArray();
+            return new EndpointStats(endpoint.name, latencies.length, endpoint.errors.sum(),
+                                     endpoint.completed.sum() / (duration.toNanos() / 1e9),
+                                     percentile(latencies, 0.50), percentile(latencies, 0.99),
+                                     latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[(int) Math.ceil(percentile * sorted.length) - 1] / 1e6;
+        }
+
+        public List<EndpointStats> getEndpoints() {
+            return endpoints;
+        }
+
+        public double errorRate() {
+            long requests = endpoints.stream()
+                                     .mapToLong(EndpointStats::requests)
+                                     .sum();
+            long errors = endpoints.stream()
+                                   .mapToLong(EndpointStats::errors)
+                                   .sum();
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%-32s %9s %7s %10s %9s %9s %9s%n",
+                                                                  "Endpoint", "Requests", "Errors", "Resp/s",
+                                                                  "p50 (ms)", "p99 (ms)", "Max (ms)"));
+            for (EndpointStats stats : endpoints) {
+                table.append(String.format(Locale.ROOT, "%-32s %9d %7d %10.1f %9.2f %9.2f %9.2f%n", stats.endpoint(),
+                                           stats.requests(), stats.errors(), stats.throughput(), stats.p50Millis(),
+                                           stats.p99Millis(), stats.maxMillis()));
+            }
+            return table.toString();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.openclassrooms.mddapi.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prints the p99 latency and throughput of each endpoint side by side for two {@link ApiLoadScenario} reports, the
+ * run on platform threads and the one on virtual threads, with the pinned virtual threads recorded during each.
+ *
+ * <p>Arguments: {@code <platform.json> <virtual.json>}.
+ */
+public class LoadTestComparison {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws IOException {
+        JsonNode platform = OBJECT_MAPPER.readTree(Path.of(args[0])
+                                                       .toFile());
+        JsonNode virtual = OBJECT_MAPPER.readTree(Path.of(args[1])
+                                                      .toFile());
+        Map<String, JsonNode> virtualEndpoints = endpoints(virtual);
+
+        System.out.printf(Locale.ROOT, "%-32s %14s %14s %8s %14s %14s %8s%n", "Endpoint", "p99 platform",
+                          "p99 virtual", "Change", "Resp/s platf.", "Resp/s virt.", "Change");
+        endpoints(platform).forEach((name, platformStats) -> {
+            JsonNode virtualStats = virtualEndpoints.get(name);
+            if (virtualStats == null) {
+                return;
+            }
+            double platformP99 = platformStats.get("p99Millis")
+                                              .asDouble();
+            double virtualP99 = virtualStats.get("p99Millis")
+                                            .asDouble();
+            double platformThroughput = platformStats.get("throughput")
+                                                     .asDouble();
+            double virtualThroughput = virtualStats.get("throughput")
+                                                   .asDouble();
+            System.out.printf(Locale.ROOT, "%-32s %14.2f %14.2f %+7.1f%% %14.1f %14.1f %+7.1f%%%n", name, platformP99,
+                              virtualP99, change(platformP99, virtualP99), platformThroughput, virtualThroughput,
+                              change(platformThroughput, virtualThroughput));
+        });
+        System.out.printf("Pinned virtual threads: %d%n", pinned(virtual));
+    }
+
+    private static Map<String, JsonNode> endpoints(JsonNode report) {
+        Map<String, JsonNode> endpoints = new LinkedHashMap<>();
+        report.get("endpoints")
+              .forEach(stats -> endpoints.put(stats.get("endpoint")
+                                                   .asText(), stats));
+        return endpoints;
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+
+    private static long pinned(JsonNode report) {
+        long count = 0;
+        for (JsonNode sites : report.path("pinned")) {
+            count += sites.asLong();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,213 @@
+package com.openclassrooms.mddapi.loadtest;
+
+import com.openclassrooms.mddapi.entity.*;
+import com.openclassrooms.mddapi.repository.CommentRepository;
+import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.TopicRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Fills the database through the repositories with a reproducible, skewed shape: topic popularity follows a
+ * quadratic curve, so a few topics get most of the subscriptions and posts, as in production. Rows are saved in chunks
+ * of {@value #CHUNK_SIZE}, one transaction per chunk, and every user shares the same pre-computed password hash.
+ * Creation dates are then spread over the given history (auditing stamps every row with the insertion time), so that
+ * keyset pages and indexes are read as they would be on a database that grew over time. Timelines are filled as
+ * {@code TimelineService.fanOut} and the trimming would have left them, so {@code feed.fan-out.enabled=true} reads
+ * them; they are ignored otherwise.
+ */
+public class LoadTestDataSeeder {
+    private static final int CHUNK_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final TopicRepository topicRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random;
+
+    public LoadTestDataSeeder(UserRepository userRepository,
+                              TopicRepository topicRepository,
+                              PostRepository postRepository,
+                              CommentRepository commentRepository,
+                              TransactionTemplate transactionTemplate,
+                              JdbcTemplate jdbcTemplate,
+                              long seed) {
+        this.userRepository = userRepository;
+        this.topicRepository = topicRepository;
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.random = new Random(seed);
+    }
+
+    public SeededData seed(Volumes volumes, Duration history, FanOut fanOut, String passwordHash) {
+        List<Topic> topics = saveInChunks(topicRepository, volumes.topics(), i -> Topic.builder()
+                                                                                     .title("Topic " + i)
+                                                                                     .description("Description of topic " + i)
+                                                                                     .build());
+
+        int subscriptionsPerUser = Math.min(volumes.subscriptionsPerUser(), topics.size());
+        List<User> users = saveInChunks(userRepository, volumes.users(), i -> {
+            Set<Topic> subscriptions = new HashSet<>();
+            while (subscriptions.size() < subscriptionsPerUser) {
+                subscriptions.add(topics.get(popular(topics.size())));
+            }
+            return User.builder()
+                       .username("user" + i)
+                       .email("user" + i + "@loadtest.local")
+                       .password(passwordHash)
+                       .subscriptions(subscriptions)
+                       .build();
+        });
+
+        List<Post> posts = saveInChunks(postRepository, volumes.posts(), i -> Post.builder()
+                                                                                 .title("Post " + i)
+                                                                                 .content(("Content of post " + i + ". ").repeat(20))
+                                                                                 .author(users.get(random.nextInt(users.size())))
+                                                                                 .topic(topics.get(popular(topics.size())))
+                                                                                 .comments(new ArrayList<>())
+                                                                                 .build());
+
+        List<Comment> comments = saveInChunks(commentRepository, volumes.posts() * volumes.commentsPerPost(), i -> Comment.builder()
+                                                                                                 .content("Comment " + i)
+                                                                                                 .author(users.get(random.nextInt(users.size())))
+                                                                                                 .post(posts.get(i / volumes.commentsPerPost()))
+                                                                                                 .build());
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<UUID, LocalDateTime> postCreatedAt = new HashMap<>();
+        backdate("posts", posts, post -> {
+            LocalDateTime createdAt = now.minus(fraction(history));
+            postCreatedAt.put(post.getId(), createdAt);
+            return createdAt;
+        });
+        backdate("comments", comments, comment -> {
+            LocalDateTime createdAt = postCreatedAt.get(comment.getPost()
+                                                               .getId());
+            return createdAt.plus(fraction(Duration.between(createdAt, now)));
+        });
+        fanOut(users, posts, postCreatedAt, fanOut);
+
+        return new SeededData(users.stream()
+                                   .map(User::getUsername)
+                                   .toList(),
+                              topics.stream()
+                                    .map(Topic::getId)
+                                    .toList(),
+                              posts.stream()
+                                   .map(Post::getId)
+                                   .toList());
+    }
+
+    /**
+     * Index in {@code [0, size)}, low indexes being much more likely than high ones.
+     */
+    private int popular(int size) {
+        double r = random.nextDouble();
+        return (int) (r * r * size);
+    }
+
+    /**
+     * Uniformly distributed in {@code [0, duration)}.
+     */
+    private Duration fraction(Duration duration) {
+        return Duration.ofMillis((long) (random.nextDouble() * duration.toMillis()));
+    }
+
+    private <T extends BaseEntity> void backdate(String table, List<T> rows, Function<T, LocalDateTime> createdAt) {
+        updateInChunks("update " + table + " set created_at = ?, updated_at = ? where id = ?",
+                       rows.stream()
+                           .map(row -> {
+                               LocalDateTime date = createdAt.apply(row);
+                               return new Object[]{date, date, row.getId()};
+                           })
+                           .toList());
+    }
+
+    /**
+     * Posts of topics with at most {@code maxSubscribers} subscribers are fanned out, every subscriber's timeline keeps
+     * its newest {@code timelineMaxLength} of them and is marked as trimmed when there were more.
+     */
+    private void fanOut(List<User> users, List<Post> posts, Map<UUID, LocalDateTime> postCreatedAt, FanOut fanOut) {
+        Map<UUID, Long> subscribers = users.stream()
+                                           .flatMap(user -> user.getSubscriptions()
+                                                                .stream())
+                                           .collect(Collectors.groupingBy(Topic::getId, Collectors.counting()));
+        List<Post> fannedOut = posts.stream()
+                                    .filter(post -> subscribers.getOrDefault(post.getTopic()
+                                                                                 .getId(), 0L) <= fanOut.maxSubscribers())
+                                    .sorted(Comparator.comparing((Post post) -> postCreatedAt.get(post.getId()))
+                                                      .reversed())
+                                    .toList();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> entries = new ArrayList<>();
+        List<Object[]> trimmedAts = new ArrayList<>();
+        for (User user : users) {
+            Set<UUID> topicIds = user.getSubscriptions()
+                                     .stream()
+                                     .map(Topic::getId)
+                                     .collect(Collectors.toSet());
+            List<Post> timeline = fannedOut.stream()
+                                           .filter(post -> topicIds.contains(post.getTopic()
+                                                                                 .getId()))
+                                           .limit(fanOut.timelineMaxLength() + 1L)
+                                           .toList();
+            timeline.stream()
+                    .limit(fanOut.timelineMaxLength())
+                    .forEach(post -> entries.add(new Object[]{UuidV7Generator.generate(), now, now, user.getId(),
+                                                              post.getId(), postCreatedAt.get(post.getId())}));
+            // Same bound as TimelineTrimmer: the first post past the maximum length.
+            if (timeline.size() > fanOut.timelineMaxLength()) {
+                trimmedAts.add(new Object[]{postCreatedAt.get(timeline.getLast()
+                                                                      .getId()), user.getId()});
+            }
+        }
+        updateInChunks("insert into timeline_entries (id, created_at, updated_at, user_id, post_id, post_created_at)"
+                       + " values (?, ?, ?, ?, ?, ?)", entries);
+        updateInChunks("update users set timeline_trimmed_at = ? where id = ?", trimmedAts);
+        updateInChunks("update posts set fanned_out = true where id = ?", fannedOut.stream()
+                                                                                 .map(post -> new Object[]{post.getId()})
+                                                                                 .toList());
+    }
+
+    private void updateInChunks(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            List<Object[]> chunk = rows.subList(from, Math.min(from + CHUNK_SIZE, rows.size()));
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, chunk));
+        }
+    }
+
+    private <T extends BaseEntity> List<T> saveInChunks(JpaRepository<T, UUID> repository, int count, IntFunction<T> factory) {
+        List<T> saved = new ArrayList<>(count);
+        for (int from = 0; from < count; from += CHUNK_SIZE) {
+            List<T> chunk = IntStream.range(from, Math.min(from + CHUNK_SIZE, count))
+                                     .mapToObj(factory)
+                                     .toList();
+            saved.addAll(Objects.requireNonNull(transactionTemplate.execute(status -> repository.saveAll(chunk))));
+        }
+        return saved;
+    }
+
+    public record Volumes(int users, int topics, int subscriptionsPerUser, int posts, int commentsPerPost) {
+    }
+
+    public record FanOut(long maxSubscribers, int timelineMaxLength) {
+    }
+
+    public record SeededData(List<String> usernames, List<UUID> topicIds, List<UUID> postIds) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.openclassrooms.mddapi.loadtest;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the JFR {@code jdk.VirtualThreadPinned} events of this JVM: a virtual thread that blocked for at least
+ * {@code threshold} while pinned to its carrier, inside a {@code synchronized} block or a native frame. Events are
+ * grouped by the first frame outside the JDK, which is the code to change. The load generator runs in the same JVM on
+ * virtual threads too, its own events (with a frame of this package) are left out.
+ */
+class PinnedThreadRecorder implements AutoCloseable {
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final String LOAD_TEST_PACKAGE = PinnedThreadRecorder.class.getPackageName() + ".";
+    private static final List<String> JDK_PACKAGES = List.of("java.", "javax.", "jdk.", "sun.");
+
+    private final RecordingStream stream = new RecordingStream();
+    private final Map<String, LongAdder> sites = new ConcurrentHashMap<>();
+
+    PinnedThreadRecorder(Duration threshold) {
+        stream.enable(EVENT)
+              .withThreshold(threshold)
+              .withStackTrace();
+        stream.onEvent(EVENT, event -> {
+            if (!isLoadGenerator(event)) {
+                sites.computeIfAbsent(site(event), site -> new LongAdder())
+                     .increment();
+            }
+        });
+        stream.startAsync();
+    }
+
+    /**
+     * Stops recording once the events recorded so far are delivered.
+     *
+     * @return the number of pinned events per site
+     */
+    Map<String, Long> stop() {
+        stream.stop();
+        Map<String, Long> counts = new TreeMap<>();
+        sites.forEach((site, count) -> counts.put(site, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    private static boolean isLoadGenerator(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        return stackTrace != null && stackTrace.getFrames()
+                                               .stream()
+                                               .anyMatch(frame -> frame.getMethod()
+                                                                       .getType()
+                                                                       .getName()
+                                                                       .startsWith(LOAD_TEST_PACKAGE));
+    }
+
+    private static String site(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames()
+                                            .isEmpty()) {
+            return "(no stack trace)";
+        }
+        return stackTrace.getFrames()
+                         .stream()
+                         .filter(frame -> JDK_PACKAGES.stream()
+                                                      .noneMatch(frame.getMethod()
+                                                                      .getType()
+                                                                      .getName()::startsWith))
+                         .findFirst()
+                         .map(PinnedThreadRecorder::name)
+                         .orElse(name(stackTrace.getFrames()
+                                                .getFirst()));
+    }
+
+    private static String name(RecordedFrame frame) {
+        return frame.getMethod()
+                    .getType()
+                    .getName() + "." + frame.getMethod()
+                                            .getName() + ":" + frame.getLineNumber();
+    }
+}
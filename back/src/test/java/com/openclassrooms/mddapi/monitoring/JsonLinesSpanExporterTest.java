@@ -0,0 +1,79 @@
+package com.openclassrooms.mddapi.monitoring;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.sdk.testing.trace.TestSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("JsonLinesSpanExporter")
+class JsonLinesSpanExporterTest {
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Should append one JSON line per span with ids, parent and attributes")
+    void shouldAppendOneLinePerSpan() throws Exception {
+        Path file = directory.resolve("spans.jsonl");
+        JsonLinesSpanExporter exporter = new JsonLinesSpanExporter(file, objectMapper);
+
+        SpanData root = span("b7ad6b7169203331", SpanContext.getInvalid(), "http get /api/posts/feed",
+                             Attributes.empty());
+        SpanData child = span("00f067aa0ba902b7", root.getSpanContext(), "db.statement",
+                              Attributes.builder()
+                                        .put("db.statement", "select 1")
+                                        .build());
+
+        assertTrue(exporter.export(List.of(root))
+                           .isSuccess());
+        assertTrue(exporter.export(List.of(child))
+                           .isSuccess());
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        JsonNode second = objectMapper.readTree(lines.get(1));
+        assertEquals(TRACE_ID, first.get("traceId").asText());
+        assertTrue(first.get("parentSpanId").isNull());
+        assertEquals("b7ad6b7169203331", second.get("parentSpanId").asText());
+        assertEquals("db.statement", second.get("name").asText());
+        assertEquals("select 1", second.get("attributes").get("db.statement").asText());
+    }
+
+    private static SpanData span(String spanId, SpanContext parent, String name, Attributes attributes) {
+        return TestSpanData.builder()
+                           .setSpanContext(SpanContext.create(TRACE_ID, spanId, TraceFlags.getSampled(),
+                                                              TraceState.getDefault()))
+                           .setParentSpanContext(parent)
+                           .setName(name)
+                           .setKind(SpanKind.INTERNAL)
+                           .setStartEpochNanos(1_000)
+                           .setEndEpochNanos(2_000)
+                           .setAttributes(attributes)
+                           .setStatus(StatusData.unset())
+                           .setHasEnded(true)
+                           .setTotalRecordedEvents(0)
+                           .setTotalRecordedLinks(0)
+                           .setTotalAttributeCount(attributes.size())
+                           .build();
+    }
+}
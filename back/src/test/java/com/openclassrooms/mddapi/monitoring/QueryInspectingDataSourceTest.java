@@ -0,0 +1,85 @@
+package com.openclassrooms.mddapi.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("QueryInspectingDataSource")
+class QueryInspectingDataSourceTest {
+
+    @Test
+    @DisplayName("Should report the SQL of prepared, plain and batched statements")
+    void shouldReportExecutedStatements() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:query_inspection;DB_CLOSE_DELAY=-1");
+        QueryInspector queryInspector = spy(new QueryInspector(new SimpleMeterRegistry(), Tracer.NOOP,
+                Duration.ofSeconds(1), 5));
+        QueryInspectingDataSource dataSource = new QueryInspectingDataSource(h2,
+                new StaticListableBeanFactory(Map.of("queryInspector", queryInspector)).getBeanProvider(QueryInspector.class));
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table items (id int)");
+            try (PreparedStatement insert = connection.prepareStatement("insert into items (id) values (?)")) {
+                insert.setInt(1, 1);
+                insert.addBatch();
+                insert.setInt(1, 2);
+                insert.addBatch();
+                insert.executeBatch();
+            }
+            try (PreparedStatement select = connection.prepareStatement("select id from items where id = ?")) {
+                select.setInt(1, 1);
+                select.executeQuery()
+                      .close();
+            }
+        }
+
+        verify(queryInspector).record(eq("create table items (id int)"), eq(false), anyLong());
+        verify(queryInspector).record(eq("insert into items (id) values (?)"), eq(true), anyLong());
+        verify(queryInspector).record(eq("select id from items where id = ?"), eq(false), anyLong());
+        verify(queryInspector, times(3)).record(any(), anyBoolean(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should not report a batched import as a possible N+1")
+    void shouldNotFlagBatchedImport() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:batch_inspection;DB_CLOSE_DELAY=-1");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        QueryInspector queryInspector = new QueryInspector(meterRegistry, Tracer.NOOP, Duration.ofSeconds(1), 5);
+        QueryInspectingDataSource dataSource = new QueryInspectingDataSource(h2,
+                new StaticListableBeanFactory(Map.of("queryInspector", queryInspector)).getBeanProvider(QueryInspector.class));
+
+        queryInspector.begin("POST /api/posts/batch");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table imported (id int)");
+            try (PreparedStatement insert = connection.prepareStatement("insert into imported (id) values (?)")) {
+                for (int batch = 0; batch < 6; batch++) {
+                    insert.setInt(1, batch);
+                    insert.addBatch();
+                    insert.executeBatch();
+                }
+            }
+        } finally {
+            queryInspector.end();
+        }
+
+        assertEquals(7, meterRegistry.get("db.request.statements").summary().totalAmount());
+        assertEquals(0, meterRegistry.get("db.statements.repeated").counter().count());
+    }
+}
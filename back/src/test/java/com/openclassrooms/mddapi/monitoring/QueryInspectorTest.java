@@ -0,0 +1,81 @@
+package com.openclassrooms.mddapi.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("QueryInspector")
+class QueryInspectorTest {
+    private SimpleMeterRegistry meterRegistry;
+    private QueryInspector queryInspector;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        queryInspector = new QueryInspector(meterRegistry, Tracer.NOOP, Duration.ofMillis(100), 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queryInspector.end();
+    }
+
+    @Test
+    @DisplayName("Should count and time the statements of a request")
+    void shouldRecordRequestTotals() {
+        queryInspector.begin("GET /api/posts");
+        queryInspector.record("select * from posts", false, TimeUnit.MILLISECONDS.toNanos(4));
+        queryInspector.record("select * from topics", false, TimeUnit.MILLISECONDS.toNanos(6));
+        queryInspector.end();
+
+        assertEquals(2, meterRegistry.get("db.statements").timer().count());
+        assertEquals(2, meterRegistry.get("db.request.statements").summary().totalAmount());
+        assertEquals(10, meterRegistry.get("db.request.statement.time").timer().totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(0, meterRegistry.get("db.statements.repeated").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should flag a statement repeated within a request as a possible N+1")
+    void shouldFlagRepeatedStatement_whenThresholdReached() {
+        queryInspector.begin("GET /api/posts");
+        for (int i = 0; i < 3; i++) {
+            queryInspector.record("select * from users where id=?", false, 1_000);
+        }
+        queryInspector.record("select * from topics where id=?", false, 1_000);
+        queryInspector.end();
+
+        assertEquals(1, meterRegistry.get("db.statements.repeated").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not flag a statement run as repeated JDBC batches")
+    void shouldNotFlagBatchedStatement() {
+        queryInspector.begin("POST /api/posts/batch");
+        for (int i = 0; i < 3; i++) {
+            queryInspector.record("insert into posts (id) values (?)", true, 1_000);
+        }
+        queryInspector.end();
+
+        assertEquals(3, meterRegistry.get("db.request.statements").summary().totalAmount());
+        assertEquals(0, meterRegistry.get("db.statements.repeated").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should count slow statements even outside of a request")
+    void shouldCountSlowStatement_whenOverThreshold() {
+        queryInspector.record("select pg_sleep(1)", false, TimeUnit.SECONDS.toNanos(1));
+        queryInspector.record("select 1", false, 1_000);
+
+        assertEquals(1, meterRegistry.get("db.statements.slow").counter().count());
+        assertEquals(2, meterRegistry.get("db.statements").timer().count());
+        assertEquals(0, meterRegistry.get("db.request.statements").summary().count());
+    }
+}
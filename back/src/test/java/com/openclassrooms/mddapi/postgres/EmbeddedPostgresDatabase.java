@@ -0,0 +1,74 @@
+package com.openclassrooms.mddapi.postgres;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PostgreSQL server for the tests that H2 cannot cover (native queries, vendor migrations), started on first use from
+ * the binaries shipped by {@code io.zonky.test:embedded-postgres} and stopped with the JVM. The server is shared, every
+ * caller gets its own empty database.
+ */
+public final class EmbeddedPostgresDatabase {
+    public static final String USERNAME = "postgres";
+    public static final String PASSWORD = "postgres";
+
+    private static final AtomicInteger databases = new AtomicInteger();
+    private static EmbeddedPostgres server;
+
+    private EmbeddedPostgresDatabase() {
+    }
+
+    /**
+     * @return the JDBC url of a new, empty database
+     */
+    public static String createDatabase(String prefix) {
+        String name = prefix + "_" + databases.incrementAndGet();
+        try (Connection connection = server().getPostgresDatabase()
+                                             .getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("create database " + name);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create database " + name, e);
+        }
+        return server.getJdbcUrl(USERNAME, name);
+    }
+
+    /**
+     * Points the application at a new database, with the Flyway locations and dialect used in production.
+     */
+    public static void register(DynamicPropertyRegistry registry, String prefix) {
+        String url = createDatabase(prefix);
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.username", () -> USERNAME);
+        registry.add("spring.datasource.password", () -> PASSWORD);
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.flyway.locations", () -> "classpath:db/migration,classpath:db/vendor/postgresql");
+    }
+
+    private static synchronized EmbeddedPostgres server() {
+        if (server == null) {
+            try {
+                server = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start the embedded PostgreSQL server", e);
+            }
+            Runtime.getRuntime()
+                   .addShutdownHook(new Thread(() -> {
+                       try {
+                           server.close();
+                       } catch (IOException ignored) {
+                           // The JVM is exiting, the server's data directory is temporary.
+                       }
+                   }));
+        }
+        return server;
+    }
+}
@@ -0,0 +1,146 @@
+package com.openclassrooms.mddapi.postgres;
+
+import com.openclassrooms.mddapi.repository.CommentRepository;
+import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.TimelineEntryRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The "after" keyset pages must start inside the (…, created_at desc, id desc) indexes instead of filtering every row
+ * newer than the cursor. Each test runs a repository query, then EXPLAINs the SQL Hibernate generated for it with the
+ * same parameters, on enough rows for the planner to prefer an index.
+ */
+@SpringBootTest
+@DisplayName("Keyset page plans on PostgreSQL")
+class KeysetPlanPostgresTest {
+    private static final String SEED = """
+            insert into users (id, created_at, updated_at, username, email, password)
+            select uuid_v7(), now(), now(), 'user' || g, 'user' || g || '@email.com', 'irrelevant'
+            from generate_series(1, 50) g;
+
+            insert into topics (id, created_at, updated_at, title, description)
+            select uuid_v7(), now(), now(), 'Topic ' || g, 'Description ' || g
+            from generate_series(1, 20) g;
+
+            insert into subscriptions (user_id, topic_id)
+            select u.id, t.id from users u cross join topics t where t.title in ('Topic 1', 'Topic 2');
+
+            insert into posts (id, created_at, updated_at, title, content, author_id, topic_id, fanned_out)
+            select uuid_v7(), timestamp '2024-01-01' + g * interval '1 minute', now(), 'Post ' || g, 'Content',
+                   (select id from users where username = 'user1'), (select id from topics where title = 'Topic ' || (g % 20 + 1)), true
+            from generate_series(1, 20000) g;
+
+            insert into comments (id, created_at, updated_at, content, author_id, post_id)
+            select uuid_v7(), timestamp '2024-01-01' + g * interval '1 minute', now(), 'Comment ' || g,
+                   (select id from users where username = 'user1'), (select id from posts order by created_at desc, id desc limit 1)
+            from generate_series(1, 5000) g;
+
+            insert into timeline_entries (id, created_at, updated_at, user_id, post_id, post_created_at)
+            select uuid_v7(), now(), now(), s.user_id, p.id, p.created_at
+            from subscriptions s join posts p on p.topic_id = s.topic_id;
+
+            analyze;
+            """;
+
+    private static final LocalDateTime CURSOR_CREATED_AT = LocalDateTime.of(2024, 1, 8, 0, 0);
+    private static final UUID CURSOR_ID = UUID.fromString("ffffffff-ffff-ffff-ffff-ffffffffffff");
+    private static final int LIMIT = 20;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private TimelineEntryRepository timelineEntryRepository;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresDatabase.register(registry, "keyset");
+        registry.add("spring.jpa.properties.hibernate.session_factory.statement_inspector",
+                     LastStatement.class::getName);
+    }
+
+    @BeforeEach
+    void seed() {
+        if (jdbcTemplate.queryForObject("select count(*) from users", Long.class) == 0) {
+            jdbcTemplate.execute(SEED);
+        }
+    }
+
+    /**
+     * @return the plan of the last statement Hibernate prepared, run with the given parameters in order
+     */
+    private String explainLastStatement(Object... parameters) {
+        return String.join("\n", jdbcTemplate.query("explain " + LastStatement.sql, (rs, row) -> rs.getString(1),
+                                                    parameters));
+    }
+
+    private static void assertKeysetIndexCondition(String plan, String table, String index) {
+        assertTrue(plan.contains(index), plan);
+        assertTrue(plan.matches("(?s).*Index Cond: .*ROW\\(.*created_at, .*id\\) < ROW\\(.*"), plan);
+        assertFalse(plan.contains("Seq Scan on " + table), plan);
+    }
+
+    @Test
+    @DisplayName("Should start the comments page at the cursor in the post's comments index")
+    void shouldSeekCommentsIndex() {
+        UUID postId = jdbcTemplate.queryForObject("select post_id from comments limit 1", UUID.class);
+        commentRepository.findByPostIdAfter(postId, CURSOR_CREATED_AT, CURSOR_ID, Limit.of(LIMIT));
+
+        assertKeysetIndexCondition(explainLastStatement(postId, CURSOR_CREATED_AT, CURSOR_ID, LIMIT),
+                                   "comments", "idx_comments_post_created_at_id");
+    }
+
+    @Test
+    @DisplayName("Should start the timeline page at the cursor in the user's timeline index")
+    void shouldSeekTimelineIndex() {
+        timelineEntryRepository.findTimelineAfter("user1", CURSOR_CREATED_AT, CURSOR_ID, Limit.of(LIMIT));
+
+        assertKeysetIndexCondition(explainLastStatement("user1", "user1", CURSOR_CREATED_AT, CURSOR_ID, LIMIT),
+                                   "timeline_entries", "idx_timeline_entries_user_post_created_at");
+    }
+
+    @Test
+    @DisplayName("Should start the feed page at the cursor in a posts index")
+    void shouldSeekPostsIndex() {
+        postRepository.findFeedAfter("user1", CURSOR_CREATED_AT, CURSOR_ID, Limit.of(LIMIT));
+
+        String plan = explainLastStatement("user1", CURSOR_CREATED_AT, CURSOR_ID, LIMIT);
+        assertTrue(plan.matches("(?s).*Index Cond: .*ROW\\(.*created_at, .*id\\) < ROW\\(.*"), plan);
+        assertFalse(plan.contains("Seq Scan on posts"), plan);
+    }
+
+    /**
+     * Keeps the SQL of the last statement prepared by Hibernate, set up by class name in the session factory.
+     */
+    public static class LastStatement implements StatementInspector {
+        private static volatile String sql;
+
+        @Override
+        public String inspect(String sql) {
+            LastStatement.sql = sql;
+            return sql;
+        }
+    }
+}
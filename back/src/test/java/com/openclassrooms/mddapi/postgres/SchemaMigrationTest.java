@@ -0,0 +1,141 @@
+package com.openclassrooms.mddapi.postgres;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Schema migrations on PostgreSQL")
+class SchemaMigrationTest {
+    // As generated by Hibernate (ddl-auto=update) from the entities, before the schema was managed by Flyway.
+    private static final String PRE_FLYWAY_SCHEMA = """
+            create table users (id uuid not null, created_at timestamp(6) not null, updated_at timestamp(6) not null,
+                email varchar(255) not null unique, password varchar(255) not null,
+                username varchar(255) not null unique, primary key (id));
+            create table topics (id uuid not null, created_at timestamp(6) not null, updated_at timestamp(6) not null,
+                description TEXT not null, title varchar(255) not null unique, primary key (id));
+            create table subscriptions (user_id uuid not null, topic_id uuid not null);
+            create table posts (id uuid not null, created_at timestamp(6) not null, updated_at timestamp(6) not null,
+                content TEXT not null, title varchar(255) not null, author_id uuid not null, topic_id uuid not null,
+                primary key (id));
+            create table comments (id uuid not null, created_at timestamp(6) not null, updated_at timestamp(6) not null,
+                content TEXT not null, author_id uuid not null, post_id uuid not null, primary key (id));
+            alter table if exists subscriptions add constraint FKpb3cy4w9mrmfb6nm1v5ogtjk7 foreign key (topic_id) references topics;
+            alter table if exists subscriptions add constraint FKhro52ohfqfbay9774bev0qinr foreign key (user_id) references users;
+            alter table if exists posts add constraint FK6xvn0811tkyo3nfjk2xvqx6ns foreign key (author_id) references users;
+            alter table if exists posts add constraint FKrfchr8dax0kfngvvkbteh5n7h foreign key (topic_id) references topics;
+            alter table if exists comments add constraint FKn2na60ukhs76ibtpt9burkm27 foreign key (author_id) references users;
+            alter table if exists comments add constraint FKh4c7lvsc298whoyd4w9ta25cr foreign key (post_id) references posts;
+            """;
+
+    private static final String ALICE = "'00000000-0000-0000-0000-000000000001'";
+    private static final String BOB = "'00000000-0000-0000-0000-000000000002'";
+    private static final String JAVA = "'00000000-0000-0000-0000-000000000003'";
+    private static final String POST = "'00000000-0000-0000-0000-000000000004'";
+
+    // Same settings as spring.flyway.* in application.properties, with the PostgreSQL vendor location.
+    private static Flyway flyway(String url) {
+        return Flyway.configure()
+                     .dataSource(url, EmbeddedPostgresDatabase.USERNAME, EmbeddedPostgresDatabase.PASSWORD)
+                     .locations("classpath:db/migration", "classpath:db/vendor/postgresql")
+                     .baselineOnMigrate(true)
+                     .baselineVersion("1")
+                     .load();
+    }
+
+    private static Connection connect(String url) throws SQLException {
+        return DriverManager.getConnection(url, EmbeddedPostgresDatabase.USERNAME, EmbeddedPostgresDatabase.PASSWORD);
+    }
+
+    private static List<String> strings(Statement statement, String query) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery(query)) {
+            while (resultSet.next()) {
+                values.add(resultSet.getString(1));
+            }
+        }
+        return values;
+    }
+
+    private static List<String> constraints(Statement statement, String table, char type) throws SQLException {
+        return strings(statement, "select conname from pg_constraint where conrelid = '" + table + "'::regclass"
+                                  + " and contype = '" + type + "' order by conname");
+    }
+
+    @Test
+    @DisplayName("Should upgrade a database created by Hibernate before Flyway")
+    void shouldUpgradeSchemaGeneratedByHibernate() throws Exception {
+        String url = EmbeddedPostgresDatabase.createDatabase("pre_flyway");
+        try (Connection connection = connect(url); Statement statement = connection.createStatement()) {
+            statement.execute(PRE_FLYWAY_SCHEMA);
+            statement.execute("insert into users values (" + ALICE + ", now(), now(), 'alice@test.com', 'hash', 'alice'),"
+                              + " (" + BOB + ", now(), now(), 'bob@test.com', 'hash', 'bob')");
+            statement.execute("insert into topics values (" + JAVA + ", now(), now(), 'Java description', 'Java')");
+            statement.execute("insert into subscriptions values (" + ALICE + ", " + JAVA + "), (" + ALICE + ", " + JAVA
+                              + "), (" + BOB + ", " + JAVA + ")");
+            statement.execute("insert into posts values (" + POST + ", now(), now(), 'Content', 'Title', " + ALICE
+                              + ", " + JAVA + ")");
+        }
+
+        flyway(url).migrate();
+
+        try (Connection connection = connect(url); Statement statement = connection.createStatement()) {
+            assertEquals(List.of("4"), strings(statement, "select version from flyway_schema_history"
+                                                            + " where installed_rank = (select max(installed_rank) from flyway_schema_history)"));
+            assertEquals(List.of("false"), strings(statement, "select fanned_out::text from posts"));
+            assertEquals(List.of("1"), strings(statement, "select count(*) from posts where search_vector is not null"));
+            assertEquals(List.of("2"), strings(statement, "select count(*) from subscriptions"));
+            assertEquals(List.of("pk_subscriptions"), constraints(statement, "subscriptions", 'p'));
+            assertEquals(List.of("fk_subscriptions_topic", "fk_subscriptions_user"), constraints(statement, "subscriptions", 'f'));
+            assertEquals(List.of("uk_users_email", "uk_users_username"), constraints(statement, "users", 'u'));
+            assertEquals(List.of("uk_topics_title"), constraints(statement, "topics", 'u'));
+            assertFalse(strings(statement, "select indexname from pg_indexes where tablename = 'timeline_entries'").isEmpty());
+            assertThrows(SQLException.class, () -> statement.execute(
+                    "insert into subscriptions values (" + ALICE + ", " + JAVA + ")"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep a single, named unique constraint when Hibernate added the named one next to its own")
+    void shouldDropDuplicatedUniqueConstraints() throws Exception {
+        String url = EmbeddedPostgresDatabase.createDatabase("pre_flyway");
+        try (Connection connection = connect(url); Statement statement = connection.createStatement()) {
+            statement.execute(PRE_FLYWAY_SCHEMA);
+            statement.execute("alter table users add constraint uk_users_username unique (username)");
+        }
+
+        flyway(url).migrate();
+
+        try (Connection connection = connect(url); Statement statement = connection.createStatement()) {
+            assertEquals(List.of("uk_users_email", "uk_users_username"), constraints(statement, "users", 'u'));
+        }
+    }
+
+    @Test
+    @DisplayName("Should create the same constraints on a new database")
+    void shouldCreateSchema_onNewDatabase() throws Exception {
+        String url = EmbeddedPostgresDatabase.createDatabase("new");
+
+        flyway(url).migrate();
+
+        try (Connection connection = connect(url); Statement statement = connection.createStatement()) {
+            assertEquals(List.of("pk_subscriptions"), constraints(statement, "subscriptions", 'p'));
+            assertEquals(List.of("uk_users_email", "uk_users_username"), constraints(statement, "users", 'u'));
+            assertEquals(List.of("uk_topics_title"), constraints(statement, "topics", 'u'));
+            assertEquals(List.of("(fanned_out = false)"), strings(statement, "select pg_get_expr(i.indpred, i.indrelid)"
+                                                                             + " from pg_index i where i.indexrelid = 'idx_posts_topic_not_fanned_out_created_at_id'::regclass"));
+            assertEquals(List.of("7"), strings(statement, "select substring(uuid_v7()::text, 15, 1)"));
+        }
+    }
+}
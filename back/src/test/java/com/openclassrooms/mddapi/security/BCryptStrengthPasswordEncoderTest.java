@@ -0,0 +1,38 @@
+package com.openclassrooms.mddapi.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("BCryptStrengthPasswordEncoder")
+class BCryptStrengthPasswordEncoderTest {
+    private final BCryptStrengthPasswordEncoder encoder = new BCryptStrengthPasswordEncoder(5);
+
+    @Test
+    @DisplayName("Should ask for a rehash when the stored cost is below the configured strength")
+    void shouldUpgrade_whenCostIsLower() {
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+    }
+
+    @Test
+    @DisplayName("Should ask for a rehash when the stored cost is above the configured strength")
+    void shouldUpgrade_whenCostIsHigher() {
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+    }
+
+    @Test
+    @DisplayName("Should keep hashes that already use the configured strength")
+    void shouldNotUpgrade_whenCostMatches() {
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+    }
+
+    @Test
+    @DisplayName("Should not ask for a rehash of a value that is not a BCrypt hash")
+    void shouldNotUpgrade_whenNotBCrypt() {
+        assertFalse(encoder.upgradeEncoding(null));
+        assertFalse(encoder.upgradeEncoding("not-a-hash"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.openclassrooms.mddapi.security;
+
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JwtAuthenticationFilter")
+class JwtAuthenticationFilterTest {
+    private final JwtUtils jwtUtils = spy(new JwtUtils("2PH78rrGfAV1VAFiQbmuZXS3wdHsM1YxRYqGDx5R1V5GzWATctQhtViX67W3PCLo6ep3rhmJIjrEmb9GVIiaeZlZJ06aV4SgQh5AEPeuUbVlak9tD3xOjW2EPuXgk2qg"));
+
+    @Mock
+    private UserRepository userRepository;
+
+    private PrincipalCache principalCache;
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache(100, Duration.ofMinutes(5));
+        filter = new JwtAuthenticationFilter(jwtUtils, userRepository, principalCache, new VerifiedTokenCache(100),
+                ObservationRegistry.NOOP);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext()
+                                    .getAuthentication();
+    }
+
+    @Test
+    @DisplayName("Should time verification on token cache misses only")
+    void shouldTimeVerification_onCacheMissOnly() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig()
+                           .observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        filter = new JwtAuthenticationFilter(jwtUtils, userRepository, principalCache, new VerifiedTokenCache(100),
+                observationRegistry);
+        String token = jwtUtils.generateToken("alice");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.empty());
+
+        authenticate(token);
+        authenticate(token);
+        authenticate(token);
+
+        assertEquals(1, meterRegistry.get("auth.jwt.verify")
+                                     .tag("outcome", "valid")
+                                     .timer()
+                                     .count());
+    }
+
+    @Test
+    @DisplayName("Should verify the token and look the user up only once for repeated requests")
+    void shouldLoadPrincipalOnce_forRepeatedRequests() throws Exception {
+        String token = jwtUtils.generateToken("alice");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(User.builder()
+                                                                                .username("alice")
+                                                                                .password("hash")
+                                                                                .build()));
+
+        assertEquals("alice", authenticate(token).getName());
+        assertEquals("alice", authenticate(token).getName());
+
+        verify(userRepository, times(1)).findByUsername("alice");
+        verify(jwtUtils, times(1)).parse(token);
+    }
+
+    @Test
+    @DisplayName("Should reload the user once the cache entry is invalidated")
+    void shouldReloadPrincipal_afterInvalidation() throws Exception {
+        String token = jwtUtils.generateToken("alice");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(User.builder()
+                                                                                .username("alice")
+                                                                                .password("hash")
+                                                                                .build()))
+                                                    .thenReturn(Optional.empty());
+
+        assertNotNull(authenticate(token));
+        principalCache.invalidate("alice");
+
+        assertNull(authenticate(token));
+        verify(userRepository, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    @DisplayName("Should not authenticate an invalid token")
+    void shouldNotAuthenticate_whenTokenInvalid() throws Exception {
+        assertNull(authenticate("not-a-jwt"));
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -0,0 +1,51 @@
+package com.openclassrooms.mddapi.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JwtUtils")
+class JwtUtilsTest {
+    private static final String SECRET = "2PH78rrGfAV1VAFiQbmuZXS3wdHsM1YxRYqGDx5R1V5GzWATctQhtViX67W3PCLo6ep3rhmJIjrEmb9GVIiaeZlZJ06aV4SgQh5AEPeuUbVlak9tD3xOjW2EPuXgk2qg";
+
+    private final JwtUtils jwtUtils = new JwtUtils(SECRET);
+
+    @Test
+    @DisplayName("Should parse a generated token into its subject and expiration")
+    void shouldParseGeneratedToken() {
+        VerifiedToken verifiedToken = jwtUtils.parse(jwtUtils.generateToken("alice"));
+
+        assertEquals("alice", verifiedToken.username());
+        assertTrue(verifiedToken.expiresAt()
+                                .isAfter(Instant.now()));
+    }
+
+    @Test
+    @DisplayName("Should reject an expired token")
+    void shouldRejectExpiredToken() {
+        String expired = Jwts.builder()
+                             .subject("alice")
+                             .expiration(new Date(System.currentTimeMillis() - 1000))
+                             .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                             .compact();
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtils.parse(expired));
+    }
+
+    @Test
+    @DisplayName("Should reject a token signed with another key")
+    void shouldRejectTokenSignedWithAnotherKey() {
+        String forged = new JwtUtils(SECRET.toLowerCase()).generateToken("alice");
+
+        assertThrows(JwtException.class, () -> jwtUtils.parse(forged));
+    }
+}
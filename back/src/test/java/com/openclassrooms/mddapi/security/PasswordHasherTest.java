@@ -0,0 +1,83 @@
+package com.openclassrooms.mddapi.security;
+
+import com.openclassrooms.mddapi.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("PasswordHasher")
+class PasswordHasherTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final PasswordHasher passwordHasher = new PasswordHasher(passwordEncoder, meterRegistry, 1, 1, Duration.ofSeconds(2));
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should delegate to the password encoder and time each call")
+    void shouldDelegateAndRecordLatency() {
+        when(passwordEncoder.encode("secret")).thenReturn("hash");
+        when(passwordEncoder.matches("secret", "hash")).thenReturn(true);
+
+        assertEquals("hash", passwordHasher.encode("secret"));
+        assertTrue(passwordHasher.matches("secret", "hash"));
+
+        assertEquals(1, meterRegistry.get("auth.password.hashing")
+                                     .tag("operation", "encode")
+                                     .timer()
+                                     .count());
+        assertEquals(1, meterRegistry.get("auth.password.hashing")
+                                     .tag("operation", "matches")
+                                     .timer()
+                                     .count());
+    }
+
+    @Test
+    @DisplayName("Should reject with 503 and Retry-After when the queue is full")
+    void shouldReject_whenQueueFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(passwordEncoder.encode("slow")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "hash";
+        });
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordHasher.encode("slow"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordHasher.encode("slow"));
+        while (meterRegistry.get("auth.password.hashing.queue.size")
+                            .gauge()
+                            .value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        ServiceUnavailableException ex = assertThrows(ServiceUnavailableException.class,
+                () -> passwordHasher.encode("slow"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatusCode());
+        assertEquals("2", ex.getHeaders()
+                            .getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, meterRegistry.get("auth.password.hashing.rejected")
+                                     .counter()
+                                     .count());
+
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,55 @@
+package com.openclassrooms.mddapi.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@DisplayName("PrincipalCache")
+class PrincipalCacheTest {
+    private final PrincipalCache principalCache = new PrincipalCache(10, Duration.ofMinutes(5));
+    private final UserDetails alice = new User("alice", "hash", List.of());
+    private final UserDetails renamed = new User("alice", "new-hash", List.of());
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should invalidate immediately outside of a transaction")
+    void shouldInvalidateImmediately_withoutTransaction() {
+        principalCache.get("alice", username -> Optional.of(alice));
+
+        principalCache.invalidate("alice");
+
+        assertSame(renamed, principalCache.get("alice", username -> Optional.of(renamed))
+                                         .orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Should keep the entry until the surrounding transaction commits")
+    void shouldInvalidateAfterCommit_withinTransaction() {
+        principalCache.get("alice", username -> Optional.of(alice));
+        TransactionSynchronizationManager.initSynchronization();
+
+        principalCache.invalidate("alice");
+        assertSame(alice, principalCache.get("alice", username -> Optional.of(renamed))
+                                       .orElseThrow());
+
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        assertSame(renamed, principalCache.get("alice", username -> Optional.of(renamed))
+                                         .orElseThrow());
+    }
+}
@@ -0,0 +1,70 @@
+package com.openclassrooms.mddapi.security;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("VerifiedTokenCache")
+class VerifiedTokenCacheTest {
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(100, ticker);
+
+    private Function<String, VerifiedToken> countingVerifier(AtomicInteger calls, Instant expiresAt) {
+        return token -> {
+            calls.incrementAndGet();
+            return new VerifiedToken("alice", expiresAt);
+        };
+    }
+
+    @Test
+    @DisplayName("Should verify a token only once while it is valid")
+    void shouldVerifyOnce_whileTokenValid() {
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, VerifiedToken> verifier = countingVerifier(calls, Instant.now()
+                                                                                 .plus(Duration.ofHours(1)));
+
+        cache.get("token", verifier);
+        cache.get("token", verifier);
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should verify again once the token expired")
+    void shouldVerifyAgain_afterTokenExpiration() {
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, VerifiedToken> verifier = countingVerifier(calls, Instant.now()
+                                                                                 .plus(Duration.ofMinutes(1)));
+
+        cache.get("token", verifier);
+        nanos.addAndGet(Duration.ofMinutes(2)
+                                .toNanos());
+        cache.get("token", verifier);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Should not cache a token that failed verification")
+    void shouldNotCache_whenVerificationFails() {
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, VerifiedToken> failing = token -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("invalid");
+        };
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get("token", failing));
+        assertThrows(IllegalArgumentException.class, () -> cache.get("token", failing));
+
+        assertEquals(2, calls.get());
+    }
+}
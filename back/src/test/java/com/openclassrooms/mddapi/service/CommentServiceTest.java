@@ -2,11 +2,15 @@ package com.openclassrooms.mddapi.service;
 
 import com.openclassrooms.mddapi.dto.comment.request.CommentRequest;
 import com.openclassrooms.mddapi.dto.comment.response.CommentResponse;
+import com.openclassrooms.mddapi.dto.page.response.CursorPageResponse;
 import com.openclassrooms.mddapi.entity.Comment;
 import com.openclassrooms.mddapi.entity.Post;
 import com.openclassrooms.mddapi.entity.User;
 import com.openclassrooms.mddapi.mapper.CommentMapper;
+import com.openclassrooms.mddapi.pagination.Cursor;
+import com.openclassrooms.mddapi.pagination.CursorPages;
 import com.openclassrooms.mddapi.repository.CommentRepository;
+import com.openclassrooms.mddapi.repository.ContentVersionRepository;
 import com.openclassrooms.mddapi.repository.PostRepository;
 import com.openclassrooms.mddapi.repository.UserRepository;
 import org.junit.jupiter.api.DisplayName;
@@ -16,9 +20,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
@@ -43,6 +50,9 @@ class CommentServiceTest {
     @Mock
     private CommentMapper commentMapper;
 
+    @Mock
+    private ContentVersionRepository contentVersionRepository;
+
     @InjectMocks
     private CommentService commentService;
 
@@ -87,6 +97,7 @@ class CommentServiceTest {
         verify(commentRepository).save(captor.capture());
         assertEquals(user, captor.getValue().getAuthor());
         assertEquals(post, captor.getValue().getPost());
+        verify(contentVersionRepository).increment();
     }
 
     @Test
@@ -116,4 +127,67 @@ class CommentServiceTest {
         assertThrows(NoSuchElementException.class,
                 () -> commentService.createComment(postId, request, "ghost"));
     }
+
+    @Test
+    @DisplayName("Should throw 404 when listing comments of a missing post")
+    void shouldThrow404_whenListingCommentsOfMissingPost() {
+        UUID postId = UUID.randomUUID();
+        when(postRepository.existsById(postId)).thenReturn(false);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> commentService.getComments(postId, null, null));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+        verifyNoInteractions(commentRepository);
+    }
+
+    @Test
+    @DisplayName("Should return a page of comments with a next cursor when more comments exist")
+    void shouldReturnCommentsPage_withNextCursor() {
+        UUID postId = UUID.randomUUID();
+        Comment newest = Comment.builder()
+                                .id(UUID.randomUUID())
+                                .createdAt(LocalDateTime.now())
+                                .build();
+        Comment extra = Comment.builder()
+                               .id(UUID.randomUUID())
+                               .createdAt(LocalDateTime.now()
+                                                       .minusMinutes(1))
+                               .build();
+        List<CommentResponse> responses = List.of(CommentResponse.builder()
+                                                                 .id(newest.getId())
+                                                                 .build());
+
+        when(postRepository.existsById(postId)).thenReturn(true);
+        when(commentRepository.findByPostId(postId, Limit.of(2))).thenReturn(List.of(newest, extra));
+        when(commentMapper.toResponseList(List.of(newest))).thenReturn(responses);
+
+        CursorPageResponse<CommentResponse> result = commentService.getComments(postId, null, 1);
+
+        assertEquals(responses, result.getItems());
+        assertEquals(Cursor.of(newest)
+                           .encode(), result.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should resume comments after the given cursor")
+    void shouldReturnCommentsPage_afterCursor() {
+        UUID postId = UUID.randomUUID();
+        Cursor cursor = new Cursor(LocalDateTime.of(2024, 1, 1, 12, 0), UUID.randomUUID());
+        List<Comment> comments = List.of(Comment.builder()
+                                                .id(UUID.randomUUID())
+                                                .build());
+        List<CommentResponse> responses = List.of(CommentResponse.builder()
+                                                                 .content("Older")
+                                                                 .build());
+
+        when(postRepository.existsById(postId)).thenReturn(true);
+        when(commentRepository.findByPostIdAfter(postId, cursor.createdAt(), cursor.id(), Limit.of(CursorPages.DEFAULT_LIMIT + 1)))
+                .thenReturn(comments);
+        when(commentMapper.toResponseList(comments)).thenReturn(responses);
+
+        CursorPageResponse<CommentResponse> result = commentService.getComments(postId, cursor.encode(), null);
+
+        assertEquals(responses, result.getItems());
+        assertNull(result.getNextCursor());
+    }
 }
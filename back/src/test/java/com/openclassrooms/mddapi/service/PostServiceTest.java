@@ -1,31 +1,55 @@
 package com.openclassrooms.mddapi.service;
 
+import com.openclassrooms.mddapi.dto.comment.response.CommentResponse;
+import com.openclassrooms.mddapi.dto.page.response.CursorPageResponse;
 import com.openclassrooms.mddapi.dto.post.request.PostRequest;
 import com.openclassrooms.mddapi.dto.post.response.PostResponse;
+import com.openclassrooms.mddapi.dto.post.response.PostSummaryResponse;
 import com.openclassrooms.mddapi.entity.Post;
 import com.openclassrooms.mddapi.entity.Topic;
 import com.openclassrooms.mddapi.entity.User;
 import com.openclassrooms.mddapi.mapper.PostMapper;
+import com.openclassrooms.mddapi.pagination.Cursor;
+import com.openclassrooms.mddapi.pagination.CursorPages;
+import com.openclassrooms.mddapi.pagination.SearchCursor;
+import com.openclassrooms.mddapi.repository.ContentVersionRepository;
 import com.openclassrooms.mddapi.repository.PostRepository;
 import com.openclassrooms.mddapi.repository.TopicRepository;
 import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.repository.projection.PostSearchHit;
+import com.openclassrooms.mddapi.repository.projection.PostSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,59 +62,163 @@ class PostServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ContentVersionRepository contentVersionRepository;
+
     @Mock
     private TopicRepository topicRepository;
 
     @Mock
     private PostMapper postMapper;
 
+    @Mock
+    private CommentService commentService;
+
+    @Mock
+    private TimelineService timelineService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ObservationRegistry observationRegistry = ObservationRegistry.create();
+
     @InjectMocks
     private PostService postService;
 
     @Test
-    @DisplayName("Should return mapped feed for subscribed topics")
-    void shouldReturnFeed_forSubscribedTopics() {
-        Topic tech = Topic.builder()
-                          .title("Tech")
-                          .build();
-        User user = User.builder()
-                        .username("alice")
-                        .build();
-        user.getSubscriptions().add(tech);
+    @DisplayName("Should return first feed page with a next cursor when more posts exist")
+    void shouldReturnFeedPage_withNextCursor() {
+        PostSummary first = mock(PostSummary.class);
+        PostSummary extra = mock(PostSummary.class);
+        UUID firstId = UUID.randomUUID();
+        LocalDateTime firstCreatedAt = LocalDateTime.now();
+        when(first.getId()).thenReturn(firstId);
+        when(first.getCreatedAt()).thenReturn(firstCreatedAt);
+        List<PostSummaryResponse> responses = List.of(PostSummaryResponse.builder()
+                                                                        .title("Post 1")
+                                                                        .build());
 
-        List<Post> posts = List.of(Post.builder()
-                                       .title("Post 1")
-                                       .build());
-        List<PostResponse> responses = List.of(PostResponse.builder()
-                                                          .title("Post 1")
-                                                          .build());
+        when(postRepository.findFeed("alice", Limit.of(2))).thenReturn(List.of(first, extra));
+        when(postMapper.toSummaryResponseList(List.of(first))).thenReturn(responses);
 
-        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
-        when(postRepository.findAllByTopicInOrderByCreatedAtDesc(user.getSubscriptions())).thenReturn(posts);
-        when(postMapper.toResponseList(posts)).thenReturn(responses);
+        CursorPageResponse<PostSummaryResponse> result = postService.getFeed("alice", null, 1, Sort.Direction.DESC);
 
-        List<PostResponse> result = postService.getFeed("alice");
+        assertEquals(responses, result.getItems());
+        assertEquals(new Cursor(firstCreatedAt, firstId).encode(), result.getNextCursor());
+        verify(postRepository).findFeed("alice", Limit.of(2));
+        assertEquals(1, meterRegistry.get("feed.page.size")
+                                     .tag("source", "posts")
+                                     .summary()
+                                     .totalAmount());
+    }
 
-        assertEquals(responses, result);
-        verify(userRepository).findByUsername("alice");
-        verify(postRepository).findAllByTopicInOrderByCreatedAtDesc(user.getSubscriptions());
-        verify(postMapper).toResponseList(posts);
+    @Test
+    @DisplayName("Should resume feed after the given cursor")
+    void shouldReturnFeedPage_afterCursor() {
+        Cursor cursor = new Cursor(LocalDateTime.of(2024, 1, 1, 12, 0), UUID.randomUUID());
+        List<PostSummary> posts = List.of(mock(PostSummary.class));
+        List<PostSummaryResponse> responses = List.of(PostSummaryResponse.builder()
+                                                                        .title("Older")
+                                                                        .build());
+
+        when(postRepository.findFeedAfter("alice", cursor.createdAt(), cursor.id(), Limit.of(CursorPages.DEFAULT_LIMIT + 1)))
+                .thenReturn(posts);
+        when(postMapper.toSummaryResponseList(posts)).thenReturn(responses);
+
+        CursorPageResponse<PostSummaryResponse> result = postService.getFeed("alice", cursor.encode(), null, Sort.Direction.DESC);
+
+        assertEquals(responses, result.getItems());
+        assertNull(result.getNextCursor());
+        verify(postRepository, never()).findFeed(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should read feed from timelines when fan-out is enabled")
+    void shouldReadFeedFromTimelines_whenFanOutEnabled() {
+        List<PostSummary> posts = List.of(mock(PostSummary.class));
+        List<PostSummaryResponse> responses = List.of(PostSummaryResponse.builder()
+                                                                        .title("Fanned out")
+                                                                        .build());
+
+        when(timelineService.isEnabled()).thenReturn(true);
+        when(timelineService.findFeed("alice", null, Limit.of(CursorPages.DEFAULT_LIMIT + 1))).thenReturn(posts);
+        when(postMapper.toSummaryResponseList(posts)).thenReturn(responses);
+
+        CursorPageResponse<PostSummaryResponse> result = postService.getFeed("alice", null, null, Sort.Direction.DESC);
+
+        assertEquals(responses, result.getItems());
+        verify(postRepository, never()).findFeed(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should read oldest-first feed from the posts table even when fan-out is enabled")
+    void shouldReadOldestFirstFeedFromPosts_whenFanOutEnabled() {
+        Cursor cursor = new Cursor(LocalDateTime.of(2024, 1, 1, 12, 0), UUID.randomUUID());
+        List<PostSummary> posts = List.of(mock(PostSummary.class));
+        List<PostSummaryResponse> responses = List.of(PostSummaryResponse.builder()
+                                                                        .title("Newer")
+                                                                        .build());
+
+        when(timelineService.isEnabled()).thenReturn(true);
+        when(postRepository.findFeedOldestFirstAfter("alice", cursor.createdAt(), cursor.id(),
+                                                     Limit.of(CursorPages.DEFAULT_LIMIT + 1))).thenReturn(posts);
+        when(postMapper.toSummaryResponseList(posts)).thenReturn(responses);
+
+        CursorPageResponse<PostSummaryResponse> result = postService.getFeed("alice", cursor.encode(), null,
+                                                                             Sort.Direction.ASC);
+
+        assertEquals(responses, result.getItems());
+        verify(timelineService, never()).findFeed(any(), any(), any());
+        assertEquals(1, meterRegistry.get("feed.page.size")
+                                     .tag("source", "posts")
+                                     .summary()
+                                     .totalAmount());
+    }
+
+    @Test
+    @DisplayName("Should throw 400 when feed cursor is malformed")
+    void shouldThrow400_whenFeedCursorMalformed() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> postService.getFeed("alice", "not-a-cursor", null, Sort.Direction.DESC));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should stream all posts one at a time and close the result stream")
+    void shouldStreamAllPosts() {
+        PostSummary first = mock(PostSummary.class);
+        PostSummary second = mock(PostSummary.class);
+        PostSummaryResponse firstResponse = PostSummaryResponse.builder().title("first").build();
+        PostSummaryResponse secondResponse = PostSummaryResponse.builder().title("second").build();
+        AtomicBoolean closed = new AtomicBoolean();
+
+        when(postRepository.streamAllSummaries()).thenReturn(Stream.of(first, second)
+                                                                   .onClose(() -> closed.set(true)));
+        when(postMapper.toSummaryResponse(first)).thenReturn(firstResponse);
+        when(postMapper.toSummaryResponse(second)).thenReturn(secondResponse);
+
+        List<PostSummaryResponse> streamed = new ArrayList<>();
+        postService.streamAllPosts(streamed::add);
+
+        assertEquals(List.of(firstResponse, secondResponse), streamed);
+        assertTrue(closed.get());
     }
 
     @Test
     @DisplayName("Should return all posts")
     void shouldReturnAllPosts() {
-        List<Post> posts = List.of(Post.builder().build());
-        List<PostResponse> responses = List.of(PostResponse.builder().title("post").build());
+        List<PostSummary> posts = List.of(mock(PostSummary.class));
+        List<PostSummaryResponse> responses = List.of(PostSummaryResponse.builder().title("post").build());
 
-        when(postRepository.findAll()).thenReturn(posts);
-        when(postMapper.toResponseList(posts)).thenReturn(responses);
+        when(postRepository.findAllSummaries()).thenReturn(posts);
+        when(postMapper.toSummaryResponseList(posts)).thenReturn(responses);
 
-        List<PostResponse> result = postService.getAllPosts();
+        List<PostSummaryResponse> result = postService.getAllPosts();
 
         assertEquals(responses, result);
-        verify(postRepository).findAll();
-        verify(postMapper).toResponseList(posts);
+        verify(postRepository).findAllSummaries();
+        verify(postMapper).toSummaryResponseList(posts);
     }
 
     @Test
@@ -142,6 +270,11 @@ class PostServiceTest {
         assertEquals(topic, captor.getValue().getTopic());
         verify(postMapper).toEntity(request);
         verify(postMapper).toResponse(savedPost);
+        InOrder inOrder = inOrder(timelineService, postRepository, contentVersionRepository);
+        inOrder.verify(timelineService).prepareFanOut(postEntity);
+        inOrder.verify(postRepository).save(postEntity);
+        inOrder.verify(timelineService).fanOut(savedPost);
+        inOrder.verify(contentVersionRepository).increment();
     }
 
     @Test
@@ -160,11 +293,57 @@ class PostServiceTest {
         assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
     }
 
+    @Test
+    @DisplayName("Should save a batch of posts in one call without fanning them out")
+    void shouldCreatePosts_inOneSaveAll() {
+        Topic topic = Topic.builder()
+                           .id(UUID.randomUUID())
+                           .title("Java")
+                           .build();
+        List<PostRequest> requests = List.of(
+                PostRequest.builder().title("First").content("Content").topicId(topic.getId()).build(),
+                PostRequest.builder().title("Second").content("Content").topicId(topic.getId()).build());
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(User.builder().username("alice").build()));
+        when(topicRepository.findAllById(any())).thenReturn(List.of(topic));
+        when(postMapper.toEntity(any(PostRequest.class))).thenAnswer(invocation -> new Post());
+        when(postRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(postMapper.toResponseList(any())).thenReturn(List.of(new PostResponse(), new PostResponse()));
+
+        List<PostResponse> result = postService.createPosts(requests, "alice");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Post>> captor = ArgumentCaptor.forClass(List.class);
+        verify(postRepository).saveAll(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertTrue(captor.getValue().stream().allMatch(post -> post.getTopic() == topic && !post.isFannedOut()));
+        assertEquals(2, result.size());
+        verify(timelineService).skipFanOut(Set.of(topic.getId()));
+        verifyNoMoreInteractions(timelineService);
+    }
+
+    @Test
+    @DisplayName("Should throw 404 and save nothing when a batch references a missing topic")
+    void shouldThrow404_whenTopicMissingOnBatchCreate() {
+        Topic topic = Topic.builder()
+                           .id(UUID.randomUUID())
+                           .build();
+        List<PostRequest> requests = List.of(
+                PostRequest.builder().title("Known").content("Content").topicId(topic.getId()).build(),
+                PostRequest.builder().title("Unknown").content("Content").topicId(UUID.randomUUID()).build());
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(User.builder().build()));
+        when(topicRepository.findAllById(any())).thenReturn(List.of(topic));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> postService.createPosts(requests, "alice"));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+        verify(postRepository, never()).saveAll(any());
+    }
+
     @Test
     @DisplayName("Should throw 404 when post not found by id")
     void shouldThrow404_whenPostMissingById() {
         UUID postId = UUID.randomUUID();
-        when(postRepository.findById(postId)).thenReturn(Optional.empty());
+        when(postRepository.findWithAuthorAndTopicById(postId)).thenReturn(Optional.empty());
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
                 () -> postService.getPostById(postId));
@@ -172,7 +351,7 @@ class PostServiceTest {
     }
 
     @Test
-    @DisplayName("Should return mapped post when found by id")
+    @DisplayName("Should return mapped post with first comments page when found by id")
     void shouldReturnMappedPost_whenFoundById() {
         UUID postId = UUID.randomUUID();
         Post post = Post.builder()
@@ -184,13 +363,66 @@ class PostServiceTest {
                                             .title("Title")
                                             .build();
 
-        when(postRepository.findById(postId)).thenReturn(Optional.of(post));
+        List<CommentResponse> comments = List.of(CommentResponse.builder()
+                                                                .content("Nice")
+                                                                .build());
+
+        when(postRepository.findWithAuthorAndTopicById(postId)).thenReturn(Optional.of(post));
+        when(commentService.findComments(postId, null, null)).thenReturn(new CursorPageResponse<>(comments, "next"));
         when(postMapper.toResponse(post)).thenReturn(response);
 
         PostResponse result = postService.getPostById(postId);
 
         assertEquals(response, result);
-        verify(postRepository).findById(postId);
+        assertEquals(comments, result.getComments());
+        assertEquals("next", result.getCommentsNextCursor());
+        verify(postRepository).findWithAuthorAndTopicById(postId);
         verify(postMapper).toResponse(post);
     }
+
+    @Test
+    @DisplayName("Should return best search matches with a cursor on the last rank")
+    void shouldReturnSearchPage_withRankCursor() {
+        PostSearchHit first = mock(PostSearchHit.class);
+        PostSearchHit extra = mock(PostSearchHit.class);
+        UUID firstId = UUID.randomUUID();
+        when(first.getId()).thenReturn(firstId);
+        when(first.getRank()).thenReturn(0.6f);
+        List<PostSummaryResponse> responses = List.of(PostSummaryResponse.builder()
+                                                                        .title("Spring tips")
+                                                                        .build());
+
+        when(postRepository.search("spring", 2)).thenReturn(List.of(first, extra));
+        when(postMapper.toSearchResponseList(List.of(first))).thenReturn(responses);
+
+        CursorPageResponse<PostSummaryResponse> result = postService.search("spring", null, 1);
+
+        assertEquals(responses, result.getItems());
+        assertEquals(new SearchCursor(0.6f, firstId).encode(), result.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should resume search after the given rank and id")
+    void shouldReturnSearchPage_afterCursor() {
+        SearchCursor cursor = new SearchCursor(0.0607927f, UUID.randomUUID());
+        List<PostSearchHit> hits = List.of(mock(PostSearchHit.class));
+
+        when(postRepository.searchAfter("spring", 0.0607927f, cursor.id(), CursorPages.DEFAULT_LIMIT + 1))
+                .thenReturn(hits);
+        when(postMapper.toSearchResponseList(hits)).thenReturn(List.of());
+
+        CursorPageResponse<PostSummaryResponse> result = postService.search("spring", cursor.encode(), null);
+
+        assertNull(result.getNextCursor());
+        verify(postRepository, never()).search(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should throw 400 when search query is blank")
+    void shouldThrow400_whenSearchQueryBlank() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> postService.search("  ", null, null));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        verifyNoInteractions(postRepository);
+    }
 }
@@ -0,0 +1,318 @@
+package com.openclassrooms.mddapi.service;
+
+import com.openclassrooms.mddapi.cache.NotFannedOutTopics;
+import com.openclassrooms.mddapi.entity.Post;
+import com.openclassrooms.mddapi.entity.Topic;
+import com.openclassrooms.mddapi.entity.User;
+import com.openclassrooms.mddapi.event.PostFannedOutEvent;
+import com.openclassrooms.mddapi.event.TimelineEntriesAddedEvent;
+import com.openclassrooms.mddapi.pagination.Cursor;
+import com.openclassrooms.mddapi.pagination.Keyset;
+import com.openclassrooms.mddapi.repository.PostRepository;
+import com.openclassrooms.mddapi.repository.TimelineEntryRepository;
+import com.openclassrooms.mddapi.repository.UserRepository;
+import com.openclassrooms.mddapi.repository.projection.PostSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TimelineService")
+class TimelineServiceTest {
+
+    @Mock
+    private TimelineEntryRepository timelineEntryRepository;
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private NotFannedOutTopics notFannedOutTopics;
+
+    private TimelineService timelineService;
+
+    @BeforeEach
+    void setUp() {
+        timelineService = new TimelineService(timelineEntryRepository, postRepository, userRepository, eventPublisher, notFannedOutTopics, true, 2, 100);
+    }
+
+    private Post post(Topic topic) {
+        return Post.builder()
+                   .id(UUID.randomUUID())
+                   .topic(topic)
+                   .createdAt(LocalDateTime.now())
+                   .build();
+    }
+
+    private PostSummary summary(LocalDateTime createdAt) {
+        PostSummary summary = mock(PostSummary.class);
+        lenient().when(summary.getId())
+                 .thenReturn(UUID.randomUUID());
+        when(summary.getCreatedAt()).thenReturn(createdAt);
+        return summary;
+    }
+
+    @Test
+    @DisplayName("Should mark the post as fanned out when its topic is under the subscriber threshold")
+    void shouldPrepareFanOut_whenTopicHasFewSubscribers() {
+        Topic topic = Topic.builder()
+                           .id(UUID.randomUUID())
+                           .build();
+        Post post = post(topic);
+
+        when(userRepository.countSubscribersUpTo(topic.getId(), 3)).thenReturn(2L);
+
+        timelineService.prepareFanOut(post);
+
+        assertTrue(post.isFannedOut());
+        verifyNoInteractions(notFannedOutTopics);
+    }
+
+    @Test
+    @DisplayName("Should append the post to every subscriber timeline in one statement")
+    void shouldFanOutToSubscribers() {
+        Topic topic = Topic.builder()
+                           .id(UUID.randomUUID())
+                           .build();
+        Post post = post(topic);
+        post.setFannedOut(true);
+
+        when(timelineEntryRepository.insertForSubscribers(topic.getId(), post.getId(), post.getCreatedAt())).thenReturn(2);
+
+        timelineService.fanOut(post);
+
+        verify(eventPublisher).publishEvent(new PostFannedOutEvent(topic.getId()));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Should leave posts of topics above the subscriber threshold to fan-out-on-read")
+    void shouldSkipFanOut_whenTopicHasTooManySubscribers() {
+        Topic topic = Topic.builder()
+                           .id(UUID.randomUUID())
+                           .build();
+        Post post = post(topic);
+
+        when(userRepository.countSubscribersUpTo(topic.getId(), 3)).thenReturn(3L);
+
+        timelineService.prepareFanOut(post);
+        timelineService.fanOut(post);
+
+        assertFalse(post.isFannedOut());
+        verify(notFannedOutTopics).addAll(List.of(topic.getId()));
+        verifyNoInteractions(timelineEntryRepository, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should do nothing when fan-out is disabled")
+    void shouldNotFanOut_whenDisabled() {
+        TimelineService disabled = new TimelineService(timelineEntryRepository, postRepository, userRepository, eventPublisher,
+                notFannedOutTopics, false, 2, 100);
+        Post post = post(Topic.builder()
+                              .id(UUID.randomUUID())
+                              .build());
+
+        disabled.prepareFanOut(post);
+        disabled.fanOut(post);
+
+        assertFalse(post.isFannedOut());
+        verifyNoInteractions(userRepository, timelineEntryRepository, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should backfill fanned-out posts of a newly subscribed topic")
+    void shouldBackfillTimeline_onSubscribe() {
+        User user = User.builder()
+                        .id(UUID.randomUUID())
+                        .build();
+        UUID topicId = UUID.randomUUID();
+        List<Post> posts = List.of(post(Topic.builder()
+                                             .id(topicId)
+                                             .build()));
+
+        when(userRepository.findIdByUsername("john")).thenReturn(Optional.of(user.getId()));
+        when(userRepository.getReferenceById(user.getId())).thenReturn(user);
+        when(postRepository.findFannedOutMissingFromTimeline(topicId, user.getId(), Limit.of(100))).thenReturn(posts);
+
+        timelineService.backfill("john", topicId);
+
+        verify(timelineEntryRepository).saveAll(anyList());
+        verify(userRepository, never()).raiseTimelineTrimmedAt(any(), any());
+        verify(eventPublisher).publishEvent(new TimelineEntriesAddedEvent(List.of(user.getId())));
+    }
+
+    @Test
+    @DisplayName("Should mark the timeline as trimmed below a backfill cut at the maximum length")
+    void shouldRaiseTrimmedAt_whenBackfillReachesMaxLength() {
+        TimelineService shortTimelines = new TimelineService(timelineEntryRepository, postRepository, userRepository, eventPublisher,
+                notFannedOutTopics, true, 2, 1);
+        UUID userId = UUID.randomUUID();
+        UUID topicId = UUID.randomUUID();
+        Post post = post(Topic.builder()
+                              .id(topicId)
+                              .build());
+
+        when(userRepository.findIdByUsername("john")).thenReturn(Optional.of(userId));
+        when(userRepository.getReferenceById(userId)).thenReturn(User.builder()
+                                                                     .id(userId)
+                                                                     .build());
+        when(postRepository.findFannedOutMissingFromTimeline(topicId, userId, Limit.of(1))).thenReturn(List.of(post));
+
+        shortTimelines.backfill("john", topicId);
+
+        verify(userRepository).raiseTimelineTrimmedAt(userId, post.getCreatedAt());
+    }
+
+    @Test
+    @DisplayName("Should merge timeline and fan-out-on-read posts newest first")
+    void shouldMergeTimelineAndNotFannedOutPosts() {
+        LocalDateTime now = LocalDateTime.now();
+        PostSummary newest = summary(now);
+        PostSummary middle = summary(now.minusMinutes(1));
+        PostSummary oldest = summary(now.minusMinutes(2));
+        Limit limit = Limit.of(2);
+        UUID largeTopicId = UUID.randomUUID();
+
+        when(timelineEntryRepository.findTimeline("alice", limit)).thenReturn(List.of(middle));
+        when(notFannedOutTopics.get()).thenReturn(Set.of(largeTopicId, UUID.randomUUID()));
+        when(userRepository.findSubscriptionIdsByUsername("alice")).thenReturn(List.of(UUID.randomUUID(), largeTopicId));
+        when(postRepository.findNotFannedOut(List.of(largeTopicId), limit)).thenReturn(List.of(newest, oldest));
+
+        List<PostSummary> result = timelineService.findFeed("alice", null, limit);
+
+        assertEquals(List.of(newest, middle), result);
+    }
+
+    @Test
+    @DisplayName("Should not look for posts left out of the timeline when no subscribed topic has some")
+    void shouldNotReadNotFannedOutPosts_whenNoSubscribedTopicHasSome() {
+        LocalDateTime now = LocalDateTime.now();
+        List<PostSummary> timeline = List.of(summary(now), summary(now.minusMinutes(1)));
+        Limit limit = Limit.of(2);
+
+        when(timelineEntryRepository.findTimeline("alice", limit)).thenReturn(timeline);
+        when(notFannedOutTopics.get()).thenReturn(Set.of(UUID.randomUUID()));
+        when(userRepository.findSubscriptionIdsByUsername("alice")).thenReturn(List.of(UUID.randomUUID()));
+
+        assertEquals(timeline, timelineService.findFeed("alice", null, limit));
+        verify(postRepository, never()).findNotFannedOut(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should not read subscriptions when no topic has posts left out of the timelines")
+    void shouldNotReadSubscriptions_whenEveryPostIsFannedOut() {
+        LocalDateTime now = LocalDateTime.now();
+        List<PostSummary> timeline = List.of(summary(now), summary(now.minusMinutes(1)));
+        Limit limit = Limit.of(2);
+
+        when(timelineEntryRepository.findTimeline("alice", limit)).thenReturn(timeline);
+        when(notFannedOutTopics.get()).thenReturn(Set.of());
+
+        assertEquals(timeline, timelineService.findFeed("alice", null, limit));
+        verify(userRepository, never()).findSubscriptionIdsByUsername(any());
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    @DisplayName("Should read posts at or before the trimmed part of the timeline from the posts table")
+    void shouldReadPostsTable_pastEndOfTimeline() {
+        LocalDateTime now = LocalDateTime.now();
+        PostSummary last = summary(now);
+        PostSummary trimmed = summary(now.minusDays(30));
+        Cursor after = new Cursor(now.plusMinutes(1), UUID.randomUUID());
+        Limit limit = Limit.of(2);
+
+        when(timelineEntryRepository.findTimelineAfter("alice", after.createdAt(), after.id(), limit)).thenReturn(List.of(last));
+        when(userRepository.findTimelineTrimmedAtByUsername("alice")).thenReturn(Optional.of(now.minusDays(1)));
+        when(postRepository.findFeedUpTo("alice", now.minusDays(1), limit)).thenReturn(List.of(trimmed));
+
+        List<PostSummary> result = timelineService.findFeed("alice", after, limit);
+
+        assertEquals(List.of(last, trimmed), result);
+    }
+
+    @Test
+    @DisplayName("Should page through the posts table with the cursor below the trimmed part of the timeline")
+    void shouldReadPostsTableAfterCursor_belowTrimmedAt() {
+        LocalDateTime now = LocalDateTime.now();
+        PostSummary backfilled = summary(now.minusDays(3));
+        PostSummary trimmed = summary(now.minusDays(2));
+        Cursor after = new Cursor(now.minusDays(1), UUID.randomUUID());
+        Limit limit = Limit.of(1);
+
+        when(timelineEntryRepository.findTimelineAfter("alice", after.createdAt(), after.id(), limit)).thenReturn(List.of(backfilled));
+        when(userRepository.findTimelineTrimmedAtByUsername("alice")).thenReturn(Optional.of(now));
+        when(postRepository.findFeedAfter("alice", after.createdAt(), after.id(), limit)).thenReturn(List.of(trimmed));
+
+        assertEquals(List.of(trimmed), timelineService.findFeed("alice", after, limit));
+    }
+
+    @Test
+    @DisplayName("Should not read the posts table when the timeline was never trimmed")
+    void shouldNotReadPostsTable_whenTimelineIsComplete() {
+        LocalDateTime now = LocalDateTime.now();
+        List<PostSummary> timeline = List.of(summary(now), summary(now.minusMinutes(1)));
+        Limit limit = Limit.of(3);
+
+        when(timelineEntryRepository.findTimeline("alice", limit)).thenReturn(timeline);
+        when(userRepository.findTimelineTrimmedAtByUsername("alice")).thenReturn(Optional.empty());
+
+        assertEquals(timeline, timelineService.findFeed("alice", null, limit));
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    @DisplayName("Should not read the posts table while the timeline fills the page above the trimmed part")
+    void shouldNotReadPostsTable_whenTimelineFillsPage() {
+        LocalDateTime now = LocalDateTime.now();
+        List<PostSummary> timeline = List.of(summary(now), summary(now.minusMinutes(1)));
+        Limit limit = Limit.of(2);
+
+        when(timelineEntryRepository.findTimeline("alice", limit)).thenReturn(timeline);
+        when(userRepository.findTimelineTrimmedAtByUsername("alice")).thenReturn(Optional.of(now.minusDays(1)));
+
+        assertEquals(timeline, timelineService.findFeed("alice", null, limit));
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    @DisplayName("Should order UUID ties like the database does")
+    void shouldOrderUuidTiesUnsigned() {
+        LocalDateTime now = LocalDateTime.now();
+        PostSummary low = mock(PostSummary.class);
+        PostSummary high = mock(PostSummary.class);
+        when(low.getCreatedAt()).thenReturn(now);
+        when(high.getCreatedAt()).thenReturn(now);
+        when(low.getId()).thenReturn(UUID.fromString("00000000-0000-0000-0000-000000000001"));
+        when(high.getId()).thenReturn(UUID.fromString("ffffffff-0000-0000-0000-000000000001"));
+
+        List<Keyset> sorted = List.<Keyset>of(low, high)
+                                  .stream()
+                                  .sorted(Keyset.NEWEST_FIRST)
+                                  .toList();
+
+        assertEquals(List.of(high, low), sorted);
+    }
+}
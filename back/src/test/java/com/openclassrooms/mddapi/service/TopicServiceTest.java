@@ -1,28 +1,23 @@
 package com.openclassrooms.mddapi.service;
 
+import com.openclassrooms.mddapi.cache.TopicCatalog;
 import com.openclassrooms.mddapi.dto.topic.response.TopicResponse;
-import com.openclassrooms.mddapi.entity.Topic;
-import com.openclassrooms.mddapi.entity.User;
-import com.openclassrooms.mddapi.mapper.TopicMapper;
 import com.openclassrooms.mddapi.repository.TopicRepository;
 import com.openclassrooms.mddapi.repository.UserRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -34,93 +29,75 @@ class TopicServiceTest {
     private TopicRepository topicRepository;
 
     @Mock
-    private TopicMapper topicMapper;
+    private TopicCatalog topicCatalog;
 
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private TimelineService timelineService;
+
     @InjectMocks
     private TopicService topicService;
 
     @Test
-    @DisplayName("Should return all topics")
+    @DisplayName("Should return all topics flagged with the user's subscriptions")
     void shouldReturnAllTopics() {
-        List<Topic> topics = List.of(Topic.builder()
+        TopicResponse tech = TopicResponse.builder()
                                           .id(UUID.randomUUID())
                                           .title("Tech")
                                           .description("Tech desc")
-                                          .build());
-        List<TopicResponse> responses = List.of(TopicResponse.builder()
-                                                             .id(topics.get(0).getId())
-                                                             .title("Tech")
-                                                             .description("Tech desc")
-                                                             .build());
+                                          .build();
+        TopicResponse science = TopicResponse.builder()
+                                             .id(UUID.randomUUID())
+                                             .title("Science")
+                                             .description("Science desc")
+                                             .build();
 
-        when(userRepository.findByUsername("john")).thenReturn(Optional.empty());
-        when(topicRepository.findAll()).thenReturn(topics);
-        when(topicMapper.toResponseList(topics)).thenReturn(responses);
+        when(topicCatalog.snapshot()).thenReturn(new TopicCatalog.Snapshot(1, List.of(tech, science)));
+        when(userRepository.findSubscriptionIdsByUsername("john")).thenReturn(List.of(science.getId()));
 
         List<TopicResponse> result = topicService.getAllTopics("john");
 
-        assertEquals(responses, result);
-        verify(userRepository).findByUsername("john");
-        verify(topicRepository).findAll();
-        verify(topicMapper).toResponseList(topics);
+        assertEquals(2, result.size());
+        assertEquals(tech.getId(), result.get(0).getId());
+        assertFalse(result.get(0).isSubscribed());
+        assertEquals(science.getId(), result.get(1).getId());
+        assertTrue(result.get(1).isSubscribed());
+        verifyNoInteractions(topicRepository);
     }
 
     @Test
     @DisplayName("Should subscribe a user when not subscribed")
     void shouldSubscribeUser_whenNotSubscribed() {
         UUID topicId = UUID.randomUUID();
-        Topic topic = Topic.builder()
-                           .id(topicId)
-                           .title("Science")
-                           .description("Science desc")
-                           .build();
-        User user = User.builder()
-                        .id(UUID.randomUUID())
-                        .username("john")
-                        .email("john@example.com")
-                        .subscriptions(new ArrayList<>())
-                        .build();
-
-        when(userRepository.findByUsername("john")).thenReturn(Optional.of(user));
-        when(topicRepository.findById(topicId)).thenReturn(Optional.of(topic));
+        when(userRepository.subscribe("john", topicId)).thenReturn(1);
 
         topicService.subscribe(topicId, "john");
 
-        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(captor.capture());
-        assertEquals(1, captor.getValue().getSubscriptions().size());
-        assertEquals(topicId, captor.getValue().getSubscriptions().get(0).getId());
+        verify(timelineService).backfill("john", topicId);
+        verify(topicRepository, never()).existsById(any());
     }
 
     @Test
     @DisplayName("Should not duplicate subscription when already subscribed")
     void shouldNotDuplicateSubscription_whenAlreadySubscribed() {
         UUID topicId = UUID.randomUUID();
-        Topic topic = Topic.builder()
-                           .id(topicId)
-                           .build();
-        User user = User.builder()
-                        .username("john")
-                        .subscriptions(new ArrayList<>(List.of(topic)))
-                        .build();
-
-        when(userRepository.findByUsername("john")).thenReturn(Optional.of(user));
-        when(topicRepository.findById(topicId)).thenReturn(Optional.of(topic));
+        when(userRepository.subscribe("john", topicId)).thenReturn(0);
+        when(userRepository.findIdByUsername("john")).thenReturn(Optional.of(UUID.randomUUID()));
+        when(topicRepository.existsById(topicId)).thenReturn(true);
 
         topicService.subscribe(topicId, "john");
 
-        verify(userRepository, never()).save(any(User.class));
-        assertEquals(1, user.getSubscriptions().size());
+        verify(timelineService, never()).backfill(any(), any());
     }
 
     @Test
     @DisplayName("Should throw 404 when subscribing missing user")
     void shouldThrow404_whenSubscribingMissingUser() {
         UUID topicId = UUID.randomUUID();
-        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+        when(userRepository.subscribe("ghost", topicId)).thenReturn(0);
+        when(userRepository.findIdByUsername("ghost")).thenReturn(Optional.empty());
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
                 () -> topicService.subscribe(topicId, "ghost"));
@@ -131,13 +108,9 @@ class TopicServiceTest {
     @DisplayName("Should throw 404 when subscribing missing topic")
     void shouldThrow404_whenSubscribingMissingTopic() {
         UUID topicId = UUID.randomUUID();
-        User user = User.builder()
-                        .username("john")
-                        .subscriptions(new ArrayList<>())
-                        .build();
-
-        when(userRepository.findByUsername("john")).thenReturn(Optional.of(user));
-        when(topicRepository.findById(topicId)).thenReturn(Optional.empty());
+        when(userRepository.subscribe("john", topicId)).thenReturn(0);
+        when(userRepository.findIdByUsername("john")).thenReturn(Optional.of(UUID.randomUUID()));
+        when(topicRepository.existsById(topicId)).thenReturn(false);
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
                 () -> topicService.subscribe(topicId, "john"));
@@ -148,49 +121,33 @@ class TopicServiceTest {
     @DisplayName("Should unsubscribe user when subscribed")
     void shouldUnsubscribeUser_whenSubscribed() {
         UUID topicId = UUID.randomUUID();
-        Topic topic = Topic.builder()
-                           .id(topicId)
-                           .build();
-        User user = User.builder()
-                        .username("john")
-                        .subscriptions(new ArrayList<>(List.of(topic)))
-                        .build();
-
-        when(userRepository.findByUsername("john")).thenReturn(Optional.of(user));
-        when(topicRepository.findById(topicId)).thenReturn(Optional.of(topic));
+        when(userRepository.unsubscribe("john", topicId)).thenReturn(1);
 
         topicService.unsubscribe(topicId, "john");
 
-        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(captor.capture());
-        assertEquals(0, captor.getValue().getSubscriptions().size());
+        verify(timelineService).evict("john", topicId);
+        verify(topicRepository, never()).existsById(any());
     }
 
     @Test
-    @DisplayName("Should not save when unsubscribing a non subscribed user")
-    void shouldNotSave_whenUserNotSubscribed() {
+    @DisplayName("Should not evict when unsubscribing a non subscribed user")
+    void shouldNotEvict_whenUserNotSubscribed() {
         UUID topicId = UUID.randomUUID();
-        Topic topic = Topic.builder()
-                           .id(topicId)
-                           .build();
-        User user = User.builder()
-                        .username("john")
-                        .subscriptions(new ArrayList<>())
-                        .build();
-
-        when(userRepository.findByUsername("john")).thenReturn(Optional.of(user));
-        when(topicRepository.findById(topicId)).thenReturn(Optional.of(topic));
+        when(userRepository.unsubscribe("john", topicId)).thenReturn(0);
+        when(userRepository.findIdByUsername("john")).thenReturn(Optional.of(UUID.randomUUID()));
+        when(topicRepository.existsById(topicId)).thenReturn(true);
 
         topicService.unsubscribe(topicId, "john");
 
-        verify(userRepository, never()).save(any(User.class));
+        verify(timelineService, never()).evict(any(), any());
     }
 
     @Test
     @DisplayName("Should throw 404 when unsubscribing missing user")
     void shouldThrow404_whenUnsubscribingMissingUser() {
         UUID topicId = UUID.randomUUID();
-        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+        when(userRepository.unsubscribe("ghost", topicId)).thenReturn(0);
+        when(userRepository.findIdByUsername("ghost")).thenReturn(Optional.empty());
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
                 () -> topicService.unsubscribe(topicId, "ghost"));
@@ -201,13 +158,9 @@ class TopicServiceTest {
     @DisplayName("Should throw 404 when unsubscribing missing topic")
     void shouldThrow404_whenUnsubscribingMissingTopic() {
         UUID topicId = UUID.randomUUID();
-        User user = User.builder()
-                        .username("john")
-                        .subscriptions(new ArrayList<>())
-                        .build();
-
-        when(userRepository.findByUsername("john")).thenReturn(Optional.of(user));
-        when(topicRepository.findById(topicId)).thenReturn(Optional.empty());
+        when(userRepository.unsubscribe("john", topicId)).thenReturn(0);
+        when(userRepository.findIdByUsername("john")).thenReturn(Optional.of(UUID.randomUUID()));
+        when(topicRepository.existsById(topicId)).thenReturn(false);
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
                 () -> topicService.unsubscribe(topicId, "john"));
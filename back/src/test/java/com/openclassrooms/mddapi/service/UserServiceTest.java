@@ -5,19 +5,27 @@ import com.openclassrooms.mddapi.dto.auth.response.AuthResponse;
 import com.openclassrooms.mddapi.dto.user.response.UserResponse;
 import com.openclassrooms.mddapi.entity.User;
 import com.openclassrooms.mddapi.mapper.UserMapper;
+import com.openclassrooms.mddapi.repository.ContentVersionRepository;
 import com.openclassrooms.mddapi.repository.UserRepository;
 import com.openclassrooms.mddapi.security.JwtUtils;
+import com.openclassrooms.mddapi.security.PasswordHasher;
+import com.openclassrooms.mddapi.security.PrincipalCache;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.SQLException;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -37,11 +45,22 @@ class UserServiceTest {
     private UserMapper userMapper;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private ContentVersionRepository contentVersionRepository;
+
+    @Mock
+    private PasswordHasher passwordHasher;
 
     @Mock
     private JwtUtils jwtUtils;
 
+    @Mock
+    private PrincipalCache principalCache;
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
     @InjectMocks
     private UserService userService;
 
@@ -101,8 +120,6 @@ class UserServiceTest {
                             .build();
 
         when(userRepository.findByUsername("old")).thenReturn(Optional.of(existing));
-        when(userRepository.existsByEmail("new@example.com")).thenReturn(false);
-        when(userRepository.existsByUsername("new")).thenReturn(false);
         doAnswer(invocation -> {
             RegisterRequest req = invocation.getArgument(0);
             User user = invocation.getArgument(1);
@@ -110,19 +127,46 @@ class UserServiceTest {
             user.setEmail(req.getEmail());
             return null;
         }).when(userMapper).updateEntityFromRequest(eq(request), any(User.class));
-        when(passwordEncoder.encode("password")).thenReturn("encoded");
-        when(userRepository.save(any(User.class))).thenReturn(updated);
+        when(passwordHasher.encode("password")).thenReturn("encoded");
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(updated);
         when(jwtUtils.generateToken("new")).thenReturn("jwt-token");
 
         AuthResponse result = userService.updateMe("old", request);
 
         assertEquals("jwt-token", result.getToken());
         ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
-        verify(userRepository).save(captor.capture());
+        verify(userRepository).saveAndFlush(captor.capture());
         User saved = captor.getValue();
         assertEquals("new", saved.getUsername());
         assertEquals("new@example.com", saved.getEmail());
         assertEquals("encoded", saved.getPassword());
+        verify(principalCache).invalidate("old");
+    }
+
+    @Test
+    @DisplayName("Should hash the new password before opening the transaction")
+    void shouldHashPassword_beforeTransaction() {
+        User existing = User.builder()
+                            .username("user")
+                            .email("user@example.com")
+                            .build();
+        RegisterRequest request = RegisterRequest.builder()
+                                                 .username("user")
+                                                 .email("user@example.com")
+                                                 .password("password")
+                                                 .build();
+
+        when(passwordHasher.encode("password")).thenReturn("encoded");
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(existing));
+        when(userRepository.saveAndFlush(existing)).thenReturn(existing);
+
+        userService.updateMe("user", request);
+
+        InOrder inOrder = inOrder(passwordHasher, transactionManager, userRepository);
+        inOrder.verify(passwordHasher).encode("password");
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(userRepository).findByUsername("user");
+        inOrder.verify(transactionManager).commit(any());
     }
 
     @Test
@@ -154,11 +198,12 @@ class UserServiceTest {
                                                  .build();
 
         when(userRepository.findByUsername("user")).thenReturn(Optional.of(existing));
-        when(userRepository.existsByEmail("taken@example.com")).thenReturn(true);
+        when(userRepository.saveAndFlush(existing)).thenThrow(uniqueViolation(User.UNIQUE_EMAIL));
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
                 () -> userService.updateMe("user", request));
         assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+        assertEquals("Email already in use", ex.getReason());
     }
 
     @Test
@@ -175,10 +220,16 @@ class UserServiceTest {
                                                  .build();
 
         when(userRepository.findByUsername("user")).thenReturn(Optional.of(existing));
-        when(userRepository.existsByUsername("taken")).thenReturn(true);
+        when(userRepository.saveAndFlush(existing)).thenThrow(uniqueViolation(User.UNIQUE_USERNAME));
 
         ResponseStatusException ex = assertThrows(ResponseStatusException.class,
                 () -> userService.updateMe("user", request));
         assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+        assertEquals("Username already in use", ex.getReason());
+    }
+
+    private static DataIntegrityViolationException uniqueViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new SQLException("duplicate key value violates unique constraint \"" + constraintName + "\""));
     }
 }
@@ -8,9 +8,14 @@ import {
   AddCommentPathParams,
   AddCommentRequest,
   AddCommentRequestSchema, CommentResponseSchema,
+  CommentPageResponse,
+  CommentPageResponseSchema,
   CreatePostRequest,
   CreatePostRequestSchema, PostResponse,
   PostResponseSchema,
+  PostSummaryResponse,
+  FeedOrder,
+  FeedOrderSchema,
   FeedResponse,
   FeedResponseSchema,
   GetPostPathParams,
@@ -22,19 +27,42 @@ import {
 export class PostService {
   private readonly http = inject(HttpClient);
 
-  private readonly feedSignal = signal<PostResponse[]>([]);
+  private readonly feedSignal = signal<PostSummaryResponse[]>([]);
+  private readonly feedCursorSignal = signal<string | null>(null);
+  private readonly feedOrderSignal = signal<FeedOrder>('desc');
   private readonly selectedPostSignal = signal<PostResponse | null>(null);
 
   readonly feed = computed(() => this.feedSignal());
+  readonly hasMoreFeed = computed(() => this.feedCursorSignal() !== null);
+  readonly feedOrder = computed(() => this.feedOrderSignal());
   readonly selectedPost = computed(() => this.selectedPostSignal());
 
-  async loadFeed() {
+  // The server pages the feed in the requested order, a cursor is only valid for the order it was issued in.
+  async loadFeed(order: FeedOrder = this.feedOrderSignal()) {
+    this.feedOrderSignal.set(FeedOrderSchema.parse(order));
+    const page = await this.fetchFeedPage();
+    this.feedSignal.set(page.items);
+    this.feedCursorSignal.set(page.nextCursor);
+    return page.items;
+  }
+
+  async loadMoreFeed() {
+    const cursor = this.feedCursorSignal();
+    if (cursor === null) return this.feedSignal();
+
+    const page = await this.fetchFeedPage(cursor);
+    this.feedSignal.set([...this.feedSignal(), ...page.items]);
+    this.feedCursorSignal.set(page.nextCursor);
+    return this.feedSignal();
+  }
+
+  private async fetchFeedPage(cursor?: string) {
+    const params: Record<string, string> = { order: this.feedOrderSignal() };
+    if (cursor) params['cursor'] = cursor;
     const raw = await firstValueFrom(
-      this.http.get<FeedResponse>(`${environment.apiUrl}/posts/feed`)
+      this.http.get<FeedResponse>(`${environment.apiUrl}/posts/feed`, { params })
     );
-    const feed = FeedResponseSchema.parse(raw);
-    this.feedSignal.set(feed);
-    return feed;
+    return FeedResponseSchema.parse(raw);
   }
 
   async getPostById({ path }: { path: GetPostPathParams }) {
@@ -51,6 +79,25 @@ export class PostService {
     return post;
   }
 
+  async loadMoreComments() {
+    const selected = this.selectedPostSignal();
+    if (!selected?.commentsNextCursor) return selected;
+
+    const raw = await firstValueFrom(
+      this.http.get<CommentPageResponse>(`${environment.apiUrl}/posts/${selected.id}/comments`, {
+        params: { cursor: selected.commentsNextCursor },
+      })
+    );
+    const page = CommentPageResponseSchema.parse(raw);
+    const updated = {
+      ...selected,
+      comments: [...(selected.comments || []), ...page.items],
+      commentsNextCursor: page.nextCursor,
+    };
+    this.selectedPostSignal.set(updated);
+    return updated;
+  }
+
   async createPost({ payload }: { payload: CreatePostRequest }) {
     const validatedPayload = CreatePostRequestSchema.parse(payload);
     const raw = await firstValueFrom(
@@ -80,7 +127,7 @@ export class PostService {
     if (selected && selected.id === validatedParams.postId) {
       this.selectedPostSignal.set({
         ...selected,
-        comments: [...(selected.comments || []), created],
+        comments: [created, ...(selected.comments || [])],
       });
     }
 
@@ -46,6 +46,10 @@ export class PostDetailComponent {
     }
   }
 
+  loadMoreComments(): void {
+    void this.postService.loadMoreComments();
+  }
+
   async sendComment(): Promise<void> {
     const post = this.post();
     if (!post) return;
@@ -1,5 +1,5 @@
 import { DatePipe } from '@angular/common';
-import { ChangeDetectionStrategy, Component, computed, inject, signal } from '@angular/core';
+import { ChangeDetectionStrategy, Component, inject } from '@angular/core';
 import { RouterLink } from '@angular/router';
 
 import { MatButtonModule } from '@angular/material/button';
@@ -8,8 +8,7 @@ import { MatFormFieldModule } from '@angular/material/form-field';
 import { MatSelectModule } from '@angular/material/select';
 
 import { PostService } from '../../../core/post/post.service';
-
-type SortOrder = 'date_desc' | 'date_asc';
+import { FeedOrder } from '../../../models/post.model';
 
 @Component({
   selector: 'app-post-list',
@@ -21,21 +20,19 @@ type SortOrder = 'date_desc' | 'date_asc';
 export class PostListComponent {
   private readonly postService = inject(PostService);
 
-  protected readonly sortOrder = signal<SortOrder>('date_desc');
+  protected readonly sortOrder = this.postService.feedOrder;
   protected readonly feed = this.postService.feed;
-
-  protected readonly sortedFeed = computed(() => {
-    const items = [...this.feed()];
-    const direction = this.sortOrder() === 'date_asc' ? 1 : -1;
-    items.sort((a, b) => {
-      const aTime = a.createdAt?.getTime?.() ?? 0;
-      const bTime = b.createdAt?.getTime?.() ?? 0;
-      return (aTime - bTime) * direction;
-    });
-    return items;
-  });
+  protected readonly hasMore = this.postService.hasMoreFeed;
 
   constructor() {
     void this.postService.loadFeed();
   }
+
+  sortBy(order: FeedOrder): void {
+    void this.postService.loadFeed(order);
+  }
+
+  loadMore(): void {
+    void this.postService.loadMoreFeed();
+  }
 }
@@ -11,9 +11,16 @@ export type CommentResponse = z.infer<typeof CommentResponseSchema>;
 export const CommentListResponseSchema = z.array(CommentResponseSchema);
 export type CommentListResponse = z.infer<typeof CommentListResponseSchema>;
 
+export const CommentPageResponseSchema = z.object({
+  items: CommentListResponseSchema,
+  nextCursor: z.string().nullable(),
+})
+export type CommentPageResponse = z.infer<typeof CommentPageResponseSchema>;
+
 export const PostResponseSchema = z.object({
   author: z.string(),
   comments: z.array(CommentResponseSchema).nullable().default([]),
+  commentsNextCursor: z.string().nullable().optional(),
   content: z.string(),
   createdAt: z.coerce.date(),
   id: z.uuid(),
@@ -22,7 +29,18 @@ export const PostResponseSchema = z.object({
 })
 export type PostResponse = z.infer<typeof PostResponseSchema>;
 
-export const PostListResponseSchema = z.array(PostResponseSchema);
+export const PostSummaryResponseSchema = z.object({
+  author: z.string(),
+  commentCount: z.number(),
+  content: z.string(),
+  createdAt: z.coerce.date(),
+  id: z.uuid(),
+  title: z.string(),
+  topic: z.string(),
+})
+export type PostSummaryResponse = z.infer<typeof PostSummaryResponseSchema>;
+
+export const PostListResponseSchema = z.array(PostSummaryResponseSchema);
 export type PostListResponse = z.infer<typeof PostListResponseSchema>;
 
 export const CreatePostRequestSchema = z.object({
@@ -47,5 +65,11 @@ export const GetPostPathParamsSchema = z.object({
 })
 export type GetPostPathParams = z.infer<typeof GetPostPathParamsSchema>;
 
-export const FeedResponseSchema = PostListResponseSchema;
+export const FeedOrderSchema = z.enum(['desc', 'asc']);
+export type FeedOrder = z.infer<typeof FeedOrderSchema>;
+
+export const FeedResponseSchema = z.object({
+  items: PostListResponseSchema,
+  nextCursor: z.string().nullable(),
+})
 export type FeedResponse = z.infer<typeof FeedResponseSchema>;
\ No newline at end of file